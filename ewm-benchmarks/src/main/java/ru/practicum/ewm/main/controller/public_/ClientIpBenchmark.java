@@ -0,0 +1,38 @@
+package ru.practicum.ewm.main.controller.public_;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/** PublicEventsController.clientIp: без X-Forwarded-For, с одним адресом и с цепочкой прокси. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientIpBenchmark {
+
+    @Param({"none", "single", "chain"})
+    private String forwarded;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/events/1");
+        request.setRemoteAddr("10.0.0.5");
+        switch (forwarded) {
+            case "single" -> request.addHeader("X-Forwarded-For", "203.0.113.7");
+            case "chain" -> request.addHeader("X-Forwarded-For", " 203.0.113.7 , 198.51.100.2, 10.0.0.1");
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    public String clientIp() {
+        return PublicEventsController.clientIp(request);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.ewm.main.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/** Jackson-сериализация страницы List<EventShortDto>, как её пишет ответ GET /events. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventShortDtoJsonBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    // тот же построитель, что использует Spring Boot для ObjectMapper приложения
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<EventShortDto> page;
+
+    @Setup
+    public void setUp() {
+        page = LongStream.rangeClosed(1, size).mapToObj(id -> EventShortDto.builder()
+                .id(id)
+                .annotation("Большой летний концерт под открытым небом, вход свободный для всех желающих")
+                .category(new CategoryDto(id % 20, "Категория " + id % 20))
+                .confirmedRequests(id % 50)
+                .eventDate("2026-05-01 12:30:45")
+                .initiator(new UserShortDto(id % 100, "Пользователь " + id % 100))
+                .paid(id % 2 == 0)
+                .title("Событие " + id)
+                .views(id * 7)
+                .build()).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.ewm.main.mapper;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.ewm.main.dto.EventFullDto;
+import ru.practicum.ewm.main.dto.EventShortDto;
+import ru.practicum.ewm.main.mapper.util.DateTimeMapper;
+import ru.practicum.ewm.main.model.Category;
+import ru.practicum.ewm.main.model.Event;
+import ru.practicum.ewm.main.model.Location;
+import ru.practicum.ewm.main.model.User;
+import ru.practicum.ewm.main.model.enums.EventState;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventMapper.toShortDto/toFullDto на одном событии со всеми связями.
+ * Мапперы собираются тем же Spring-связыванием, что и в сервисе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventMapperBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private EventMapper mapper;
+    private Event event;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(EventMapperImpl.class, CategoryMapperImpl.class,
+                UserMapperImpl.class, LocationMapperImpl.class, DateTimeMapper.class);
+        mapper = context.getBean(EventMapper.class);
+
+        LocalDateTime now = LocalDateTime.of(2026, 5, 1, 12, 0);
+        event = Event.builder()
+                .id(42L)
+                .title("Концерт в парке")
+                .annotation("Большой летний концерт под открытым небом, вход свободный для всех желающих")
+                .description("Описание события ".repeat(40))
+                .category(new Category(7L, "Концерты"))
+                .initiator(new User(3L, "Иван Петров", "ivan@example.com"))
+                .location(new Location(11L, 55.75, 37.61))
+                .eventDate(now.plusDays(10))
+                .createdOn(now.minusDays(3))
+                .publishedOn(now.minusDays(1))
+                .paid(false)
+                .participantLimit(100)
+                .requestModeration(true)
+                .state(EventState.PUBLISHED)
+                .confirmedRequests(17L)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public EventShortDto toShortDto() {
+        return mapper.toShortDto(event, 1234L);
+    }
+
+    @Benchmark
+    public EventFullDto toFullDto() {
+        return mapper.toFullDto(event, 1234L);
+    }
+}
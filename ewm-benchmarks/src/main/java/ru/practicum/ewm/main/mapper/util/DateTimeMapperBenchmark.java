@@ -0,0 +1,30 @@
+package ru.practicum.ewm.main.mapper.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/** DateTimeMapper.format/parse — вызываются на каждую дату каждого события в ответе и запросе. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeMapperBenchmark {
+
+    private final DateTimeMapper mapper = new DateTimeMapper();
+    private final LocalDateTime value = LocalDateTime.of(2026, 5, 1, 12, 30, 45);
+    private final String text = "2026-05-01 12:30:45";
+
+    @Benchmark
+    public String format() {
+        return mapper.format(value);
+    }
+
+    @Benchmark
+    public LocalDateTime parse() {
+        return mapper.parse(text);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.ewm.main.stats;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/** Сборка URI запроса /stats в StatsClient.views/loadViews для списков событий разной длины. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsClientUriBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int ids;
+
+    private List<String> uris;
+    private final LocalDateTime start = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private final LocalDateTime end = LocalDateTime.of(2026, 5, 2, 0, 0);
+
+    @Setup
+    public void setUp() {
+        uris = LongStream.rangeClosed(1, ids).mapToObj(id -> "/events/" + id).toList();
+    }
+
+    @Benchmark
+    public URI viewsUri() {
+        return StatsClient.viewsUri("http://stats-server:9090", uris, start, end, true, false);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.ewm.dbbench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Общая часть контекстов замеров: только JDBC/JPA, источник данных — через SqlCapture. */
+@Configuration(proxyBeanMethods = false)
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        TransactionAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class
+})
+class CaptureConfig {
+
+    @Bean
+    SqlCapture sqlCapture(DataSourceProperties properties) {
+        return new SqlCapture(properties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+    }
+
+    @Bean
+    DataSource dataSource(SqlCapture capture) {
+        return capture.dataSource();
+    }
+}
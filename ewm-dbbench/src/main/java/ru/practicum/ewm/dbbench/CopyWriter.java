@@ -0,0 +1,54 @@
+package ru.practicum.ewm.dbbench;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Потоковая запись строк через COPY ... FROM STDIN (текстовый формат, разделитель — табуляция).
+ * Значения генерируются без табуляций, переводов строк и обратных слешей, поэтому не экранируются.
+ */
+final class CopyWriter implements AutoCloseable {
+    private static final int FLUSH_AT = 1 << 20;
+
+    private final CopyIn copy;
+    private final StringBuilder buf = new StringBuilder(FLUSH_AT + 4096);
+    private long rows;
+
+    CopyWriter(Connection c, String table, String columns) throws SQLException {
+        this.copy = c.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + columns + ") FROM STDIN");
+    }
+
+    void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buf.append('\t');
+            }
+            buf.append(values[i] == null ? "\\N" : values[i]);
+        }
+        buf.append('\n');
+        rows++;
+        if (buf.length() >= FLUSH_AT) {
+            flush();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buf.setLength(0);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+        copy.endCopy();
+    }
+}
@@ -0,0 +1,482 @@
+package ru.practicum.ewm.dbbench;
+
+import db.migration.V4__Backfill_ip_sketches;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Заполняет базы обоих сервисов синтетическими данными заданного размера. Таблицы перед этим очищаются.
+ * Схему создают сами сервисы (Flyway при старте), генератор её только наполняет.
+ * <p>
+ * Перекос как в жизни: популярность событий, организаторов, категорий, ip и слов — по Ципфу;
+ * часть хитов идёт «очередями» — десятки подряд с одного ip на одно событие.
+ * Производные данные сервиса статистики (роллапы, HLL-скетчи) и проекция просмотров
+ * основного сервиса (events.views, event_view_ips, водяной знак ленты) строятся из сгенерированных хитов,
+ * поэтому данные согласованы так же, как после работы сервисов.
+ */
+final class DataGenerator {
+    static final String APP = "ewm-main-service";
+
+    // слова для названий и описаний; частота падает к концу списка
+    static final String[] WORDS = {
+            "концерт", "выставка", "фестиваль", "лекция", "встреча", "музыка", "город", "вечер", "кино", "театр",
+            "экскурсия", "мастер-класс", "джаз", "рок", "искусство", "история", "наука", "спорт", "забег", "йога",
+            "книги", "фотография", "квест", "ярмарка", "дегустация", "танцы", "стендап", "поэзия", "архитектура",
+            "дизайн", "технологии", "стартап", "игры", "настолки", "кофе", "вино", "гастрономия", "природа", "поход",
+            "велопрогулка", "парк", "музей", "галерея", "опера", "балет", "органный", "камерный", "семинар",
+            "хакатон", "конференция", "митап", "нетворкинг", "благотворительность", "волонтёры", "детский",
+            "семейный", "ретро", "винтаж", "астрономия", "планетарий", "каллиграфия", "керамика", "импровизация"
+    };
+
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+    private static final Pattern HOST = Pattern.compile("^jdbc:postgresql://([^:/?]+)");
+    private static final double BURST_PROBABILITY = 0.002;
+    private static final double LISTING_SHARE = 0.1;
+
+    private final Options.Db mainDb;
+    private final Options.Db statsDb;
+    private final Scale scale;
+    private final long seed;
+    private final double skew;
+    private final boolean allowRemote;
+    // ts в stats хранится в UTC (hibernate.jdbc.time_zone сервиса статистики)
+    private final LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+
+    /** Размер набора. */
+    record Scale(int users, int events, long requests, long hits, int days) {
+        static Scale of(Options o, int events) {
+            return new Scale(
+                    (int) Math.max(1, events * o.getDouble("users-per-event", 1.0)),
+                    events,
+                    (long) (events * o.getDouble("requests-per-event", 3.0)),
+                    (long) (events * o.getDouble("hits-per-event", 20.0)),
+                    o.getInt("days", 180));
+        }
+    }
+
+    DataGenerator(Options o, Scale scale) {
+        this.mainDb = o.main();
+        this.statsDb = o.stats();
+        this.scale = scale;
+        this.seed = o.getLong("seed", 42);
+        this.skew = o.getDouble("skew", 1.1);
+        this.allowRemote = o.getBoolean("allow-remote");
+    }
+
+    void run() throws Exception {
+        log.info("Seeding {}", scale);
+        try (Connection main = connect(mainDb); Connection stats = connect(statsDb)) {
+            requireTable(main, "events");
+            requireTable(stats, "endpoint_hits");
+            int[] published = seedMain(main, new SplittableRandom(seed));
+            seedStats(stats, published, new SplittableRandom(seed + 1));
+            projectViews(stats, main);
+            timed("vacuum analyze", () -> {
+                exec(main, "VACUUM ANALYZE");
+                exec(stats, "VACUUM ANALYZE");
+            });
+        }
+    }
+
+    // ===== основной сервис =====
+
+    /** Возвращает id опубликованных событий по убыванию популярности. */
+    private int[] seedMain(Connection c, SplittableRandom rnd) throws SQLException {
+        exec(c, """
+                TRUNCATE compilation_events, compilations, participation_requests, event_view_ips,
+                         events, locations, categories, users RESTART IDENTITY CASCADE
+                """);
+        int users = scale.users();
+        int events = scale.events();
+        int categories = Math.max(10, Math.min(1000, events / 1000));
+
+        timed("users", () -> {
+            try (CopyWriter w = new CopyWriter(c, "users", "id, name, email")) {
+                for (int id = 1; id <= users; id++) {
+                    w.row(id, "Пользователь " + id, "user" + id + "@example.com");
+                }
+            }
+        });
+        timed("categories", () -> {
+            try (CopyWriter w = new CopyWriter(c, "categories", "id, name")) {
+                for (int id = 1; id <= categories; id++) {
+                    w.row(id, "Категория " + id);
+                }
+            }
+        });
+        timed("locations", () -> {
+            try (CopyWriter w = new CopyWriter(c, "locations", "id, lat, lon")) {
+                for (int id = 1; id <= events; id++) {
+                    w.row(id, rnd.nextDouble(-60, 70), rnd.nextDouble(-180, 180));
+                }
+            }
+        });
+
+        int[] userByRank = permutation(users, rnd);
+        int[] categoryByRank = permutation(categories, rnd);
+        Zipf organizers = new Zipf(users, 1.0);
+        Zipf categoryPopularity = new Zipf(categories, 1.0);
+        Zipf words = new Zipf(WORDS.length, 1.0);
+        int[] published = new int[events];
+        int[] limits = new int[events + 1];
+        int[] count = {0};
+
+        timed("events", () -> {
+            try (CopyWriter w = new CopyWriter(c, "events", "id, title, annotation, description, category_id, "
+                    + "initiator_id, location_id, event_date, created_on, published_on, paid, participant_limit, "
+                    + "request_moderation, state")) {
+                for (int id = 1; id <= events; id++) {
+                    LocalDateTime eventDate = now.minusDays(60).plusSeconds(rnd.nextLong(240L * 86_400));
+                    LocalDateTime createdOn = (eventDate.isBefore(now) ? eventDate : now)
+                            .minusSeconds(rnd.nextLong(3_600, 60L * 86_400));
+                    double s = rnd.nextDouble();
+                    String state = s < 0.7 ? "PUBLISHED" : s < 0.9 ? "PENDING" : "CANCELED";
+                    LocalDateTime publishedOn = "PUBLISHED".equals(state)
+                            ? createdOn.plusSeconds(rnd.nextLong(3_600, 72L * 3_600))
+                            : null;
+                    int limit = rnd.nextDouble() < 0.3 ? 0 : rnd.nextInt(10, 501);
+                    w.row(id, text(rnd, words, 3), text(rnd, words, 12), text(rnd, words, 40),
+                            categoryByRank[categoryPopularity.next(rnd)], userByRank[organizers.next(rnd)], id,
+                            eventDate, createdOn, publishedOn, rnd.nextDouble() < 0.4, limit,
+                            rnd.nextDouble() < 0.7, state);
+                    if (publishedOn != null) {
+                        published[count[0]++] = id;
+                        limits[id] = limit;
+                    }
+                }
+            }
+        });
+        int[] byPopularity = new int[count[0]];
+        System.arraycopy(published, 0, byPopularity, 0, count[0]);
+        shuffle(byPopularity, rnd);
+        Zipf popularity = new Zipf(byPopularity.length, skew);
+
+        timed("participation_requests", () -> {
+            // requester = base + j*step (mod users) с шагом, взаимно простым с users, — без повторов в событии
+            long step = coprimeStep(users, rnd);
+            try (CopyWriter w = new CopyWriter(c, "participation_requests", "event_id, requester_id, created, status")) {
+                for (int rank = 0; rank < byPopularity.length; rank++) {
+                    int eventId = byPopularity[rank];
+                    double expected = scale.requests() * popularity.weight(rank);
+                    long k = Math.min(users, (long) expected + (rnd.nextDouble() < expected % 1 ? 1 : 0));
+                    long base = rnd.nextLong(users);
+                    int limit = limits[eventId];
+                    int confirmed = 0;
+                    for (long j = 0; j < k; j++) {
+                        String status;
+                        if ((limit == 0 || confirmed < limit) && rnd.nextDouble() < 0.7) {
+                            status = "CONFIRMED";
+                            confirmed++;
+                        } else {
+                            double s = rnd.nextDouble();
+                            status = s < 0.6 ? "PENDING" : s < 0.9 ? "REJECTED" : "CANCELED";
+                        }
+                        w.row(eventId, (base + j * step) % users + 1,
+                                now.minusSeconds(rnd.nextLong(1, 30L * 86_400)), status);
+                    }
+                }
+            }
+            exec(c, """
+                    UPDATE events e
+                       SET confirmed_requests = r.cnt
+                      FROM (SELECT event_id, COUNT(*) AS cnt
+                              FROM participation_requests
+                             WHERE status = 'CONFIRMED'
+                             GROUP BY event_id) r
+                     WHERE r.event_id = e.id
+                    """);
+        });
+
+        timed("compilations", () -> {
+            int compilations = Math.max(10, events / 10_000);
+            try (CopyWriter w = new CopyWriter(c, "compilations", "id, title, pinned")) {
+                for (int id = 1; id <= compilations; id++) {
+                    w.row(id, "Подборка " + id, rnd.nextDouble() < 0.2);
+                }
+            }
+            try (CopyWriter w = new CopyWriter(c, "compilation_events", "compilation_id, event_id")) {
+                for (int id = 1; id <= compilations; id++) {
+                    Set<Integer> picked = new HashSet<>();
+                    int size = Math.min(byPopularity.length, rnd.nextInt(5, 21));
+                    while (picked.size() < size) {
+                        picked.add(byPopularity[popularity.next(rnd)]);
+                    }
+                    for (int eventId : picked) {
+                        w.row(id, eventId);
+                    }
+                }
+            }
+        });
+
+        for (String table : new String[]{"users", "categories", "locations", "events", "compilations"}) {
+            exec(c, "SELECT setval(pg_get_serial_sequence('%1$s', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM %1$s"
+                    .formatted(table));
+        }
+        return byPopularity;
+    }
+
+    // ===== сервис статистики =====
+
+    private void seedStats(Connection c, int[] published, SplittableRandom rnd) throws SQLException {
+        exec(c, """
+                TRUNCATE endpoint_hits, hit_rollup_minute, hit_rollup_hour, hit_rollup_day,
+                         ip_sketch_minute, ip_sketch_hour, ip_sketch_day, uri_visitors, uri_visitor_counts RESTART IDENTITY
+                """);
+        LocalDateTime from = now.minusDays(scale.days());
+        // секции под всё окно, как их завёл бы HitPartitionMaintenance
+        try (PreparedStatement ps = c.prepareStatement("""
+                SELECT ensure_endpoint_hits_partition(CAST(m AS DATE))
+                  FROM generate_series(date_trunc('month', CAST(? AS TIMESTAMP)), CAST(? AS TIMESTAMP),
+                                       INTERVAL '1 month') m
+                """)) {
+            ps.setObject(1, from);
+            ps.setObject(2, now);
+            ps.executeQuery().close();
+        }
+
+        long hits = scale.hits();
+        int ipPool = (int) Math.max(1_000, Math.min(16_000_000, hits / 10));
+        Zipf popularity = new Zipf(published.length, skew);
+        Zipf ips = new Zipf(ipPool, 0.8);
+        long stepMicros = Math.max(1, scale.days() * 86_400_000_000L / Math.max(1, hits));
+
+        timed("endpoint_hits", () -> {
+            try (CopyWriter w = new CopyWriter(c, "endpoint_hits", "app, uri, ip, ts")) {
+                int burstLeft = 0;
+                String burstUri = null;
+                String burstIp = null;
+                // ts растёт вместе с id — как при записи сервисом
+                for (long i = 0; i < hits; i++) {
+                    LocalDateTime ts = from.plus(i * stepMicros, ChronoUnit.MICROS);
+                    String uri;
+                    String ip;
+                    if (burstLeft > 0) {
+                        burstLeft--;
+                        uri = burstUri;
+                        ip = burstIp;
+                    } else if (rnd.nextDouble() < BURST_PROBABILITY) {
+                        burstLeft = rnd.nextInt(5, 50);
+                        burstUri = "/events/" + published[popularity.next(rnd)];
+                        burstIp = ip(rnd.nextInt(ipPool));
+                        uri = burstUri;
+                        ip = burstIp;
+                    } else {
+                        uri = rnd.nextDouble() < LISTING_SHARE ? "/events" : "/events/" + published[popularity.next(rnd)];
+                        ip = ip(ips.next(rnd));
+                    }
+                    w.row(APP, uri, ip, ts);
+                }
+            }
+        });
+
+        timed("hit rollups", () -> {
+            exec(c, """
+                    INSERT INTO hit_rollup_minute (bucket, app, uri, hits)
+                    SELECT date_trunc('minute', ts), app, uri, COUNT(*) FROM endpoint_hits GROUP BY 1, 2, 3
+                    """);
+            exec(c, """
+                    INSERT INTO hit_rollup_hour (bucket, app, uri, hits)
+                    SELECT date_trunc('hour', bucket), app, uri, SUM(hits) FROM hit_rollup_minute GROUP BY 1, 2, 3
+                    """);
+            exec(c, """
+                    INSERT INTO hit_rollup_day (bucket, app, uri, hits)
+                    SELECT date_trunc('day', bucket), app, uri, SUM(hits) FROM hit_rollup_hour GROUP BY 1, 2, 3
+                    """);
+        });
+
+        timed("uri visitors", () -> {
+            exec(c, """
+                    INSERT INTO uri_visitors (app, uri, ip, first_seen)
+                    SELECT app, uri, ip, MIN(ts) FROM endpoint_hits GROUP BY 1, 2, 3
+                    """);
+            exec(c, """
+                    INSERT INTO uri_visitor_counts (app, uri, visitors)
+                    SELECT app, uri, COUNT(*) FROM uri_visitors GROUP BY 1, 2
+                    """);
+        });
+
+        // скетчи строит та же миграция, что заполняла их по истории в сервисе
+        timed("ip sketches", () -> {
+            c.setAutoCommit(false);
+            try {
+                new V4__Backfill_ip_sketches().migrate(new Context() {
+                    @Override
+                    public Configuration getConfiguration() {
+                        return null;
+                    }
+
+                    @Override
+                    public Connection getConnection() {
+                        return c;
+                    }
+                });
+                c.commit();
+            } catch (Exception ex) {
+                c.rollback();
+                throw new SQLException("Sketch backfill failed", ex);
+            } finally {
+                c.setAutoCommit(true);
+            }
+        });
+    }
+
+    // ===== проекция просмотров основного сервиса =====
+
+    private void projectViews(Connection stats, Connection main) throws Exception {
+        timed("event views projection", () -> {
+            Path tmp = Files.createTempFile("event-view-ips", ".tsv");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    stats.unwrap(PGConnection.class).getCopyAPI().copyOut("""
+                            COPY (SELECT DISTINCT CAST(substr(uri, 9) AS BIGINT), ip
+                                    FROM endpoint_hits
+                                   WHERE app = '%s' AND uri LIKE '/events/%%') TO STDOUT
+                            """.formatted(APP), out);
+                }
+                try (InputStream in = Files.newInputStream(tmp)) {
+                    main.unwrap(PGConnection.class).getCopyAPI()
+                            .copyIn("COPY event_view_ips (event_id, ip) FROM STDIN", in);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            exec(main, """
+                    UPDATE events e
+                       SET views = v.cnt
+                      FROM (SELECT event_id, COUNT(*) AS cnt FROM event_view_ips GROUP BY event_id) v
+                     WHERE v.event_id = e.id
+                    """);
+            long lastHitId;
+            try (Statement st = stats.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM endpoint_hits")) {
+                rs.next();
+                lastHitId = rs.getLong(1);
+            }
+            // лента хитов уже учтена — EventViewsProjection продолжит с конца
+            try (PreparedStatement ps = main.prepareStatement(
+                    "UPDATE stats_sync_state SET last_hit_id = ? WHERE name = 'event-views'")) {
+                ps.setLong(1, lastHitId);
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    // ===== helpers =====
+
+    private Connection connect(Options.Db db) throws SQLException {
+        Matcher m = HOST.matcher(db.url());
+        String host = m.find() ? m.group(1) : "";
+        if (!allowRemote && !host.equals("localhost") && !host.equals("127.0.0.1")) {
+            throw new IllegalArgumentException("Refusing to wipe non-local database " + db.url()
+                    + " (pass --allow-remote to override)");
+        }
+        return DriverManager.getConnection(db.url(), db.user(), db.password());
+    }
+
+    private static void requireTable(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    throw new IllegalStateException("Table " + table + " not found in " + c.getMetaData().getURL()
+                            + ": start the service once so that Flyway creates the schema");
+                }
+            }
+        }
+    }
+
+    private static void exec(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private static String text(SplittableRandom rnd, Zipf words, int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[words.next(rnd)]);
+        }
+        sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    private static String ip(int i) {
+        return "10." + ((i >>> 16) & 255) + "." + ((i >>> 8) & 255) + "." + (i & 255);
+    }
+
+    // ids 1..n в случайном порядке: позиция — ранг популярности
+    private static int[] permutation(int n, SplittableRandom rnd) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i + 1;
+        }
+        shuffle(a, rnd);
+        return a;
+    }
+
+    private static void shuffle(int[] a, SplittableRandom rnd) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    private static long coprimeStep(int n, SplittableRandom rnd) {
+        if (n == 1) {
+            return 1;
+        }
+        while (true) {
+            long step = rnd.nextLong(1, n);
+            if (gcd(step, n) == 1) {
+                return step;
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private static void timed(String name, Step step) throws SQLException {
+        long started = System.nanoTime();
+        try {
+            step.run();
+        } catch (SQLException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new SQLException(name + " failed", ex);
+        }
+        log.info("{}: {} ms", name, (System.nanoTime() - started) / 1_000_000);
+    }
+}
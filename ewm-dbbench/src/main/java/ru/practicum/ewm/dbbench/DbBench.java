@@ -0,0 +1,55 @@
+package ru.practicum.ewm.dbbench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Точка входа: java -jar ewm-dbbench.jar &lt;seed|run|all&gt; [--key=value ...].
+ * <ul>
+ *   <li>seed --events=N — заполнить обе базы набором размера N событий;</li>
+ *   <li>run [--label=name] — замерить запросы на текущих данных;</li>
+ *   <li>all [--sizes=10000,100000,1000000] — seed и run для каждого размера, затем сводка p50 по размерам.</li>
+ * </ul>
+ * Остальные параметры: --main-url/--main-user/--main-password, --stats-url/..., --users-per-event,
+ * --requests-per-event, --hits-per-event, --days, --skew, --seed, --warmup, --iterations, --out, --allow-remote.
+ */
+public final class DbBench {
+
+    private DbBench() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options o = Options.parse(args);
+        switch (o.command()) {
+            case "seed" -> new DataGenerator(o, DataGenerator.Scale.of(o, o.getInt("events", 100_000))).run();
+            case "run" -> new QueryRunner(o).run(o.get("label", "current"));
+            case "all" -> all(o);
+            default -> throw new IllegalArgumentException("Unknown command " + o.command() + ": seed | run | all");
+        }
+    }
+
+    private static void all(Options o) throws Exception {
+        List<QueryRunner.Report> reports = new ArrayList<>();
+        for (int events : o.getInts("sizes", "10000,100000,1000000")) {
+            new DataGenerator(o, DataGenerator.Scale.of(o, events)).run();
+            reports.add(new QueryRunner(o).run("events-" + events));
+        }
+
+        // сводка: p50 каждого запроса по размерам
+        Map<String, List<Double>> byQuery = new LinkedHashMap<>();
+        for (QueryRunner.Report r : reports) {
+            for (QueryRunner.Result q : r.queries()) {
+                byQuery.computeIfAbsent(q.name(), k -> new ArrayList<>()).add(q.p50Ms());
+            }
+        }
+        StringBuilder sb = new StringBuilder(String.format("%n%-48s", "p50, ms"));
+        reports.forEach(r -> sb.append(String.format("%16s", r.label())));
+        byQuery.forEach((name, p50s) -> {
+            sb.append(String.format("%n%-48s", name));
+            p50s.forEach(v -> sb.append(String.format("%16.3f", v)));
+        });
+        System.out.println(sb);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.ewm.dbbench;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.main.model.Event;
+import ru.practicum.ewm.main.model.enums.EventState;
+import ru.practicum.ewm.main.repository.EventRepository;
+import ru.practicum.ewm.main.service.impl.EventServiceImpl;
+
+/**
+ * Контекст с репозиториями основного сервиса и замеряемые вызовы EventRepository.searchPublic/searchAdmin.
+ * Параметры и сортировки — те же, что передаёт EventServiceImpl; фильтры берутся из данных
+ * (самые частые категории и организаторы, курсор из середины выдачи).
+ */
+@Configuration(proxyBeanMethods = false)
+@Import(CaptureConfig.class)
+@EntityScan(basePackageClasses = Event.class)
+@EnableJpaRepositories(basePackageClasses = EventRepository.class)
+class MainQueries {
+
+    static List<QueryCase> cases(ApplicationContext ctx) {
+        SqlCapture capture = ctx.getBean(SqlCapture.class);
+        EventRepository events = ctx.getBean(EventRepository.class);
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        TransactionTemplate tx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> topCategories = jdbc.queryForList(
+                "SELECT category_id FROM events GROUP BY category_id ORDER BY COUNT(*) DESC LIMIT 3", Long.class);
+        List<Long> topInitiators = jdbc.queryForList(
+                "SELECT initiator_id FROM events GROUP BY initiator_id ORDER BY COUNT(*) DESC LIMIT 10", Long.class);
+        Map<String, Object> middle = jdbc.queryForMap("""
+                SELECT views, id FROM events WHERE state = 'PUBLISHED' ORDER BY views DESC, id
+                OFFSET (SELECT COUNT(*) / 2 FROM events WHERE state = 'PUBLISHED') LIMIT 1
+                """);
+        Long afterViews = ((Number) middle.get("views")).longValue();
+        Long afterId = ((Number) middle.get("id")).longValue();
+        String commonWord = DataGenerator.WORDS[0];
+        String rareWord = DataGenerator.WORDS[DataGenerator.WORDS.length - 1];
+
+        Sort byDate = Sort.by("eventDate", "id").ascending();
+        Sort byViews = Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id"));
+        Sort byRelevance = JpaSort.unsafe(Sort.Direction.DESC, EventServiceImpl.RELEVANCE).and(Sort.by("id"));
+        Pageable adminPage = PageRequest.of(0, 10, Sort.by("id").descending());
+
+        return List.of(
+                new QueryCase("searchPublic.default", capture, tx, () -> events.searchPublic(
+                        null, null, null, now, null, false, null, null, null, PageRequest.of(0, 10, byDate))),
+                new QueryCase("searchPublic.text.relevance", capture, tx, () -> events.searchPublic(
+                        commonWord, null, null, now, null, false, null, null, null, PageRequest.of(0, 10, byRelevance))),
+                new QueryCase("searchPublic.rareText.categories.onlyAvailable", capture, tx, () -> events.searchPublic(
+                        rareWord, topCategories, null, now, null, true, null, null, null, PageRequest.of(0, 10, byDate))),
+                new QueryCase("searchPublic.views", capture, tx, () -> events.searchPublic(
+                        null, null, null, now, null, false, null, null, null, PageRequest.of(0, 10, byViews))),
+                new QueryCase("searchPublic.views.keyset", capture, tx, () -> events.searchPublic(
+                        null, null, null, now, null, false, null, afterViews, afterId, PageRequest.of(0, 10, byViews))),
+                new QueryCase("searchPublic.range.paid.offset1000", capture, tx, () -> events.searchPublic(
+                        null, topCategories, true, now, now.plusDays(60), false, null, null, null,
+                        PageRequest.of(100, 10, byDate))),
+                new QueryCase("searchAdmin.all", capture, tx, () -> events.searchAdmin(
+                        null, null, null, null, null, null, adminPage)),
+                new QueryCase("searchAdmin.filtered", capture, tx, () -> events.searchAdmin(
+                        topInitiators, List.of(EventState.PUBLISHED, EventState.PENDING), topCategories,
+                        now.minusDays(30), now.plusDays(90), null, adminPage)),
+                new QueryCase("searchAdmin.pending.offset10000", capture, tx, () -> events.searchAdmin(
+                        null, List.of(EventState.PENDING), null, null, null, null,
+                        PageRequest.of(1000, 10, Sort.by("id").descending())))
+        );
+    }
+}
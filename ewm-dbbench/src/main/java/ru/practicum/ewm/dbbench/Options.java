@@ -0,0 +1,71 @@
+package ru.practicum.ewm.dbbench;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры командной строки вида --key=value.
+ * По умолчанию — базы из docker-compose.yml (main-db на 6542, stats-db на 6541).
+ */
+record Options(String command, Map<String, String> values) {
+
+    static Options parse(String[] args) {
+        String command = null;
+        Map<String, String> values = new HashMap<>();
+        for (String a : args) {
+            if (a.startsWith("--")) {
+                int eq = a.indexOf('=');
+                if (eq < 0) {
+                    values.put(a.substring(2), "true");
+                } else {
+                    values.put(a.substring(2, eq), a.substring(eq + 1));
+                }
+            } else if (command == null) {
+                command = a;
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + a);
+            }
+        }
+        return new Options(command == null ? "all" : command, values);
+    }
+
+    String get(String key, String def) {
+        return values.getOrDefault(key, def);
+    }
+
+    int getInt(String key, int def) {
+        return Integer.parseInt(get(key, String.valueOf(def)));
+    }
+
+    long getLong(String key, long def) {
+        return Long.parseLong(get(key, String.valueOf(def)));
+    }
+
+    double getDouble(String key, double def) {
+        return Double.parseDouble(get(key, String.valueOf(def)));
+    }
+
+    boolean getBoolean(String key) {
+        return Boolean.parseBoolean(get(key, "false"));
+    }
+
+    List<Integer> getInts(String key, String def) {
+        return Arrays.stream(get(key, def).split(",")).map(String::trim).map(Integer::valueOf).toList();
+    }
+
+    Db main() {
+        return new Db(get("main-url", "jdbc:postgresql://localhost:6542/ewm_main"),
+                get("main-user", "postgres"), get("main-password", "postgres"));
+    }
+
+    Db stats() {
+        return new Db(get("stats-url", "jdbc:postgresql://localhost:6541/ewm_stats"),
+                get("stats-user", "postgres"), get("stats-password", "postgres"));
+    }
+
+    /** Подключение к одной из баз. */
+    record Db(String url, String user, String password) {
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.ewm.dbbench;
+
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Один замеряемый вызов репозитория; выполняется в read-only транзакции, как из сервиса. */
+record QueryCase(String name, SqlCapture capture, TransactionTemplate tx, Supplier<Object> call) {
+
+    Object execute() {
+        return tx.execute(status -> call.get());
+    }
+}
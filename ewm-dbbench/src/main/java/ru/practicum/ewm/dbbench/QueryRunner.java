@@ -0,0 +1,140 @@
+package ru.practicum.ewm.dbbench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Замеры запросов репозиториев на текущих данных обеих баз.
+ * Каждый вызов: warmup прогонов, затем iterations замеров; последний замер записывается через SqlCapture,
+ * и все его запросы повторяются под EXPLAIN (ANALYZE, BUFFERS). Кэш БД к этому моменту прогрет.
+ * Отчёт — JSON в out/<label>.json.
+ */
+final class QueryRunner {
+    private static final Logger log = LoggerFactory.getLogger(QueryRunner.class);
+
+    private final Options options;
+    private final int warmup;
+    private final int iterations;
+    private final Path out;
+
+    /** Итог одного вызова; время — по всем замерам, планы — по последнему. */
+    record Result(String name, long rows, int iterations, double minMs, double p50Ms, double p95Ms, double maxMs,
+                  double meanMs, List<SqlCapture.Plan> statements) {
+    }
+
+    record Report(String label, String startedAt, Map<String, Long> tableRows, List<Result> queries) {
+    }
+
+    QueryRunner(Options options) {
+        this.options = options;
+        this.warmup = options.getInt("warmup", 3);
+        this.iterations = Math.max(1, options.getInt("iterations", 10));
+        this.out = Path.of(options.get("out", "dbbench-results"));
+    }
+
+    Report run(String label) throws Exception {
+        String startedAt = Instant.now().toString();
+        try (ConfigurableApplicationContext main = start(MainQueries.class, options.main());
+             ConfigurableApplicationContext stats = start(StatsQueries.class, options.stats())) {
+            Map<String, Long> tableRows = new LinkedHashMap<>();
+            count(main, tableRows, "users", "events", "participation_requests", "event_view_ips");
+            count(stats, tableRows, "endpoint_hits", "hit_rollup_minute", "ip_sketch_minute");
+
+            List<QueryCase> cases = new ArrayList<>(MainQueries.cases(main));
+            cases.addAll(StatsQueries.cases(stats));
+            List<Result> results = new ArrayList<>();
+            for (QueryCase c : cases) {
+                Result r = measure(c);
+                log.info("{}: p50 {} ms, p95 {} ms, {} rows, {} statements", r.name(), r.p50Ms(), r.p95Ms(),
+                        r.rows(), r.statements().size());
+                results.add(r);
+            }
+
+            Report report = new Report(label, startedAt, tableRows, results);
+            Files.createDirectories(out);
+            Path file = out.resolve(label + ".json");
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+            log.info("Report written to {}", file.toAbsolutePath());
+            return report;
+        }
+    }
+
+    private Result measure(QueryCase c) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            c.execute();
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations - 1; i++) {
+            long started = System.nanoTime();
+            c.execute();
+            nanos[i] = System.nanoTime() - started;
+        }
+        SqlCapture.Recorded<Object> last = c.capture().record(c::execute);
+        nanos[iterations - 1] = last.nanos();
+        List<SqlCapture.Plan> plans = c.capture().explain(last.statements());
+
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return new Result(c.name(), rows(last.result()), iterations, ms(sorted[0]), ms(percentile(sorted, 0.5)),
+                ms(percentile(sorted, 0.95)), ms(sorted[sorted.length - 1]),
+                ms((long) Arrays.stream(nanos).average().orElse(0)), plans);
+    }
+
+    private static ConfigurableApplicationContext start(Class<?> config, Options.Db db) {
+        return new SpringApplicationBuilder(config)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                // application.yml сервисов из их jar не читаются
+                .properties(
+                        "spring.config.name=ewm-dbbench",
+                        "spring.datasource.url=" + db.url(),
+                        "spring.datasource.username=" + db.user(),
+                        "spring.datasource.password=" + db.password(),
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.jpa.open-in-view=false")
+                .run();
+    }
+
+    private static void count(ConfigurableApplicationContext ctx, Map<String, Long> rows, String... tables) {
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        for (String t : tables) {
+            rows.put(t, jdbc.queryForObject("SELECT COUNT(*) FROM " + t, Long.class));
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Collection<?> list) {
+            return list.size();
+        }
+        return result == null ? 0 : 1;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double ms(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
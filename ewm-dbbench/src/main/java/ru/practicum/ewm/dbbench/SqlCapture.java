@@ -0,0 +1,151 @@
+package ru.practicum.ewm.dbbench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Обёртка DataSource: пока идёт запись, запоминает выполненные подготовленные запросы вместе с параметрами —
+ * ровно тот SQL, что построили Hibernate или JdbcTemplate. Затем повторяет их
+ * под EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) на отдельном соединении с теми же параметрами.
+ */
+final class SqlCapture implements AutoCloseable {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final DataSource target;
+    private List<Captured> recording;
+
+    /** Выполненный запрос: SQL и вызовы setXxx(index, ...) по порядку индексов. */
+    record Captured(String sql, List<Bind> binds) {
+    }
+
+    record Bind(Method setter, Object[] args) {
+        String show() {
+            return args.length == 2 ? String.valueOf(args[1]) : Arrays.toString(Arrays.copyOfRange(args, 1, args.length));
+        }
+    }
+
+    record Recorded<T>(T result, long nanos, List<Captured> statements) {
+    }
+
+    /** План одного запроса и главные числа из него. */
+    record Plan(String sql, List<String> params, double planningMs, double executionMs,
+                long sharedHitBlocks, long sharedReadBlocks, JsonNode plan) {
+    }
+
+    SqlCapture(DataSource target) {
+        this.target = target;
+    }
+
+    DataSource dataSource() {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return wrap(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return wrap(super.getConnection(username, password));
+            }
+        };
+    }
+
+    /** Выполняет вызов и возвращает всё, что он отправил в БД подготовленными запросами. */
+    <T> Recorded<T> record(Supplier<T> call) {
+        recording = new ArrayList<>();
+        try {
+            long started = System.nanoTime();
+            T result = call.get();
+            return new Recorded<>(result, System.nanoTime() - started, List.copyOf(recording));
+        } finally {
+            recording = null;
+        }
+    }
+
+    List<Plan> explain(List<Captured> statements) throws SQLException {
+        List<Plan> plans = new ArrayList<>();
+        try (Connection c = target.getConnection()) {
+            for (Captured s : statements) {
+                try (PreparedStatement ps = c.prepareStatement("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + s.sql())) {
+                    for (Bind b : s.binds()) {
+                        b.setter().invoke(ps, b.args());
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        plans.add(plan(s, JSON.readTree(rs.getString(1))));
+                    }
+                } catch (InvocationTargetException | IllegalAccessException | IOException ex) {
+                    throw new SQLException("EXPLAIN failed for " + s.sql(), ex);
+                }
+            }
+        }
+        return plans;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (target instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Plan plan(Captured s, JsonNode explain) {
+        JsonNode root = explain.get(0);
+        JsonNode top = root.get("Plan");
+        return new Plan(s.sql(), s.binds().stream().map(Bind::show).toList(),
+                root.path("Planning Time").asDouble(), root.path("Execution Time").asDouble(),
+                top.path("Shared Hit Blocks").asLong(), top.path("Shared Read Blocks").asLong(), root);
+    }
+
+    private Connection wrap(Connection c) {
+        return (Connection) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, m, args) -> {
+                    Object r = invoke(c, m, args);
+                    if (m.getName().equals("prepareStatement") && r instanceof PreparedStatement ps) {
+                        return wrap(ps, (String) args[0]);
+                    }
+                    return r;
+                });
+    }
+
+    private PreparedStatement wrap(PreparedStatement ps, String sql) {
+        Map<Integer, Bind> binds = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, m, args) -> {
+                    String name = m.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer i) {
+                        binds.put(i, new Bind(m, args.clone()));
+                    } else if (name.equals("clearParameters")) {
+                        binds.clear();
+                    } else if (name.startsWith("execute") && (args == null || args.length == 0) && recording != null) {
+                        recording.add(new Captured(sql, List.copyOf(binds.values())));
+                    }
+                    return invoke(ps, m, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method m, Object[] args) throws Throwable {
+        try {
+            return m.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.ewm.dbbench;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.model.EndpointHitEntity;
+import ru.practicum.stats.server.repo.EndpointHitRepository;
+import ru.practicum.stats.server.repo.HitRollupRepository;
+import ru.practicum.stats.server.repo.IpSketchRepository;
+import ru.practicum.stats.server.service.RollupPlan;
+
+/**
+ * Контекст с репозиториями сервиса статистики и замеряемые агрегаты /stats:
+ * точный unique (EndpointHitRepository), неуникальные хиты по роллапам и оценка unique по скетчам.
+ * Окна — как у StatsService: вся история для /hit/count и неровные края для обычного /stats.
+ */
+@Configuration(proxyBeanMethods = false)
+@Import({CaptureConfig.class, HitRollupRepository.class, IpSketchRepository.class})
+@EntityScan(basePackageClasses = EndpointHitEntity.class)
+@EnableJpaRepositories(basePackageClasses = EndpointHitRepository.class)
+class StatsQueries {
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    static List<QueryCase> cases(ApplicationContext ctx) {
+        SqlCapture capture = ctx.getBean(SqlCapture.class);
+        EndpointHitRepository hits = ctx.getBean(EndpointHitRepository.class);
+        HitRollupRepository rollups = ctx.getBean(HitRollupRepository.class);
+        IpSketchRepository sketches = ctx.getBean(IpSketchRepository.class);
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        TransactionTemplate tx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+
+        // ts хранится в UTC, генератор пишет его так же
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime week = now.minusDays(7);
+        LocalDateTime month = now.minusDays(30).minusMinutes(17).minusSeconds(13);
+        List<String> hotUris = jdbc.queryForList("""
+                SELECT uri FROM hit_rollup_day WHERE uri LIKE '/events/%'
+                 GROUP BY uri ORDER BY SUM(hits) DESC LIMIT 100
+                """, String.class);
+        List<String> hottest = hotUris.subList(0, Math.min(1, hotUris.size()));
+
+        return List.of(
+                new QueryCase("statsUnique.7d", capture, tx, () -> hits.statsUnique(week, now)),
+                new QueryCase("statsUniqueByUris.history.top100", capture, tx,
+                        () -> hits.statsUniqueByUris(HISTORY_START, HISTORY_END, hotUris)),
+                new QueryCase("statsUniqueByUris.history.hottest", capture, tx,
+                        () -> hits.statsUniqueByUris(HISTORY_START, HISTORY_END, hottest)),
+                new QueryCase("countHits.30d.allUris", capture, tx,
+                        () -> rollups.countHits(RollupPlan.of(month, now), null)),
+                new QueryCase("countHits.history.top100", capture, tx,
+                        () -> rollups.countHits(RollupPlan.of(HISTORY_START, HISTORY_END), hotUris)),
+                new QueryCase("estimateUnique.30d.top100", capture, tx,
+                        () -> sketches.estimateUnique(RollupPlan.of(month, now), hotUris)),
+                new QueryCase("estimateUnique.history.hottest", capture, tx,
+                        () -> sketches.estimateUnique(RollupPlan.of(HISTORY_START, HISTORY_END), hottest))
+        );
+    }
+}
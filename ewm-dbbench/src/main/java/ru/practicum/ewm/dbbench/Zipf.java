@@ -0,0 +1,41 @@
+package ru.practicum.ewm.dbbench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Распределение Ципфа по рангам 0..n-1: ранг k выпадает с вероятностью ~ 1/(k+1)^s.
+ * Даёт «длинный хвост»: немного популярных событий, организаторов, ip и слов и много редких.
+ */
+final class Zipf {
+    private final double[] cdf;
+
+    Zipf(int n, double s) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    int next(SplittableRandom rnd) {
+        int i = Arrays.binarySearch(cdf, rnd.nextDouble());
+        return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+    }
+
+    /** Доля ранга k. */
+    double weight(int k) {
+        return k == 0 ? cdf[0] : cdf[k] - cdf[k - 1];
+    }
+
+    int size() {
+        return cdf.length;
+    }
+}
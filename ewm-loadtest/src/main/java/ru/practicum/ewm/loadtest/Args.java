@@ -0,0 +1,60 @@
+package ru.practicum.ewm.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Параметры командной строки: команда и --key=value. */
+record Args(String command, Map<String, String> values) {
+
+    static Args parse(String[] args) {
+        String command = null;
+        Map<String, String> values = new HashMap<>();
+        for (String a : args) {
+            if (a.startsWith("--")) {
+                int eq = a.indexOf('=');
+                if (eq < 0) {
+                    values.put(a.substring(2), "true");
+                } else {
+                    values.put(a.substring(2, eq), a.substring(eq + 1));
+                }
+            } else if (command == null) {
+                command = a;
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + a);
+            }
+        }
+        return new Args(command == null ? "run" : command, values);
+    }
+
+    boolean has(String key) {
+        return values.containsKey(key);
+    }
+
+    String get(String key, String def) {
+        return values.getOrDefault(key, def);
+    }
+
+    int getInt(String key, int def) {
+        return Integer.parseInt(get(key, String.valueOf(def)));
+    }
+
+    double getDouble(String key, double def) {
+        return Double.parseDouble(get(key, String.valueOf(def)));
+    }
+
+    /** 500ms, 30s, 5m или просто число секунд. */
+    Duration getDuration(String key, String def) {
+        String v = get(key, def).trim();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofMillis((long) (Double.parseDouble(v.substring(0, v.length() - 1)) * 1000));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMillis((long) (Double.parseDouble(v.substring(0, v.length() - 1)) * 60_000));
+        }
+        return Duration.ofMillis((long) (Double.parseDouble(v) * 1000));
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.ewm.loadtest;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Итоги одного эндпоинта: гистограмма задержек (мкс, от запланированного момента отправки) и счётчики исходов.
+ * Ошибкой считаются 5xx, таймауты и сбои соединения; 4xx учитываются отдельно —
+ * в сценарии они бывают ожидаемыми (повторная заявка, модерация уже опубликованного события).
+ */
+final class EndpointStats {
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    final String label;
+    private final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder client = new LongAdder();
+    private final LongAdder server = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder transport = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointStats(String label) {
+        this.label = label;
+    }
+
+    void response(int status, long nanos) {
+        record(nanos);
+        if (status >= 500) {
+            server.increment();
+        } else if (status >= 400) {
+            client.increment();
+        } else {
+            ok.increment();
+        }
+    }
+
+    void timeout(long nanos) {
+        record(nanos);
+        timeouts.increment();
+    }
+
+    void failure(long nanos) {
+        record(nanos);
+        transport.increment();
+    }
+
+    /** Запрос не отправлен: превышен --max-in-flight. */
+    void drop() {
+        dropped.increment();
+    }
+
+    void addTo(EndpointStats total) {
+        total.latency.add(latency);
+        total.ok.add(ok.sum());
+        total.client.add(client.sum());
+        total.server.add(server.sum());
+        total.timeouts.add(timeouts.sum());
+        total.transport.add(transport.sum());
+        total.dropped.add(dropped.sum());
+    }
+
+    long requests() {
+        return ok.sum() + client.sum() + server.sum() + timeouts.sum() + transport.sum();
+    }
+
+    long errors() {
+        return server.sum() + timeouts.sum() + transport.sum();
+    }
+
+    double errorRate() {
+        long n = requests();
+        return n == 0 ? 0 : (double) errors() / n;
+    }
+
+    double clientErrorRate() {
+        long n = requests();
+        return n == 0 ? 0 : (double) client.sum() / n;
+    }
+
+    double percentileMs(double p) {
+        return latency.getValueAtPercentile(p) / 1000.0;
+    }
+
+    double maxMs() {
+        return latency.getMaxValue() / 1000.0;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("label", label);
+        m.put("requests", requests());
+        m.put("throughputRps", seconds > 0 ? requests() / seconds : 0);
+        m.put("status2xx", ok.sum());
+        m.put("status4xx", client.sum());
+        m.put("status5xx", server.sum());
+        m.put("timeouts", timeouts.sum());
+        m.put("transportErrors", transport.sum());
+        m.put("dropped", dropped.sum());
+        m.put("errorRate", errorRate());
+        m.put("clientErrorRate", clientErrorRate());
+        Map<String, Object> ms = new LinkedHashMap<>();
+        ms.put("p50", percentileMs(50));
+        ms.put("p90", percentileMs(90));
+        ms.put("p99", percentileMs(99));
+        ms.put("p99.9", percentileMs(99.9));
+        ms.put("max", maxMs());
+        ms.put("mean", latency.getMean() / 1000.0);
+        m.put("latencyMs", ms);
+        m.put("histogram", encoded());
+        return m;
+    }
+
+    // сжатая гистограмма для HistogramLogProcessor / сравнения прогонов
+    private String encoded() {
+        Histogram copy = latency.copy();
+        ByteBuffer buf = ByteBuffer.allocate(copy.getNeededByteBufferCapacity());
+        int len = copy.encodeIntoCompressedByteBuffer(buf);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buf.array(), len));
+    }
+
+    private void record(long nanos) {
+        latency.recordValue(Math.min(MAX_MICROS, Math.max(1, nanos / 1000)));
+    }
+}
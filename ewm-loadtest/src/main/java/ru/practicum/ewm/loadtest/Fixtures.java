@@ -0,0 +1,206 @@
+package ru.practicum.ewm.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Данные, на которые ссылаются шаблоны сценария. Перед прогоном через API создаются пользователи,
+ * категории и события (часть публикуется), затем id всех существующих сущностей собираются через API —
+ * поэтому прогон работает и на пустой базе, и на наборе из ewm-dbbench.
+ * Выбор id перекошен к началу списка: несколько «горячих» событий и пользователей, длинный хвост остальных.
+ */
+final class Fixtures {
+    static final String[] WORDS = {"концерт", "выставка", "фестиваль", "лекция", "джаз", "театр", "кино", "йога"};
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)}");
+    private static final int DISCOVER_LIMIT = 10_000;
+    private static final int PAGE = 1_000;
+
+    private final List<Long> users;
+    private final List<Long> categories;
+    private final List<Long> published;
+    private final List<Long> events;
+    private final ConcurrentLinkedQueue<Long> pending;
+    private final double skew;
+
+    private Fixtures(List<Long> users, List<Long> categories, List<Long> published, List<Long> pendingIds,
+                     double skew) {
+        this.users = users;
+        this.categories = categories;
+        this.published = published;
+        this.pending = new ConcurrentLinkedQueue<>(pendingIds);
+        this.events = new ArrayList<>(published);
+        this.events.addAll(pendingIds);
+        this.skew = skew;
+    }
+
+    static Fixtures prepare(HttpClient client, URI target, Args args) throws IOException, InterruptedException {
+        Api api = new Api(client, target);
+        create(api, args.getInt("setup-users", 50), args.getInt("setup-categories", 5),
+                args.getInt("setup-events", 200), args.getDouble("setup-published", 0.7));
+        Fixtures f = new Fixtures(
+                api.ids("/admin/users"),
+                api.ids("/categories"),
+                api.ids("/admin/events?states=PUBLISHED"),
+                api.ids("/admin/events?states=PENDING"),
+                args.getDouble("skew", 3.0));
+        System.out.printf("Fixtures: %d users, %d categories, %d published and %d pending events%n",
+                f.users.size(), f.categories.size(), f.published.size(), f.pending.size());
+        return f;
+    }
+
+    /** Проверяет, что для всех подстановок сценария есть данные. */
+    void check(Scenario scenario) {
+        for (Scenario.Template t : scenario.templates()) {
+            Matcher m = PLACEHOLDER.matcher(t.path() + (t.body() == null ? "" : t.body()));
+            while (m.find()) {
+                if (pool(m.group(1)).isEmpty() && !m.group(1).equals("word")) {
+                    throw new IllegalStateException("No data for {" + m.group(1) + "} in " + t.id());
+                }
+            }
+        }
+    }
+
+    String resolve(String text, SplittableRandom rnd) {
+        if (text == null || text.indexOf('{') < 0) {
+            return text;
+        }
+        Matcher m = PLACEHOLDER.matcher(text);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            m.appendReplacement(sb, Matcher.quoteReplacement(value(m.group(1), rnd)));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    private String value(String name, SplittableRandom rnd) {
+        return switch (name) {
+            case "word" -> URLEncoder.encode(WORDS[rnd.nextInt(WORDS.length)], StandardCharsets.UTF_8);
+            // каждое ожидающее событие модерируется один раз; когда кончились — повторная модерация (409)
+            case "pendingEvent" -> {
+                Long id = pending.poll();
+                yield String.valueOf(id != null ? id : skewed(published, rnd));
+            }
+            default -> {
+                List<Long> pool = pool(name);
+                if (pool.isEmpty()) {
+                    throw new IllegalArgumentException("Unknown placeholder {" + name + "}");
+                }
+                yield String.valueOf(skewed(pool, rnd));
+            }
+        };
+    }
+
+    private List<Long> pool(String name) {
+        return switch (name) {
+            case "user" -> users;
+            case "category" -> categories;
+            case "event" -> events;
+            case "publishedEvent", "pendingEvent" -> published;
+            default -> List.of();
+        };
+    }
+
+    private long skewed(List<Long> pool, SplittableRandom rnd) {
+        return pool.get((int) (pool.size() * Math.pow(rnd.nextDouble(), skew)));
+    }
+
+    private static void create(Api api, int users, int categories, int events, double publishedShare)
+            throws IOException, InterruptedException {
+        if (users + categories + events == 0) {
+            return;
+        }
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        SplittableRandom rnd = new SplittableRandom();
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userIds.add(api.post("/admin/users", JSON.createObjectNode()
+                    .put("name", "Нагрузка " + run + "-" + i)
+                    .put("email", "lt-" + run + "-" + i + "@example.com")));
+        }
+        List<Long> categoryIds = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            categoryIds.add(api.post("/admin/categories", JSON.createObjectNode().put("name", "Нагрузка " + run + "-" + i)));
+        }
+        if (userIds.isEmpty() || categoryIds.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < events; i++) {
+            String w1 = WORDS[rnd.nextInt(WORDS.length)];
+            String w2 = WORDS[rnd.nextInt(WORDS.length)];
+            ObjectNode e = JSON.createObjectNode()
+                    .put("title", w1 + " и " + w2 + " " + i)
+                    .put("annotation", "Нагрузочное событие: " + w1 + ", " + w2 + " и немного текста")
+                    .put("description", "Описание нагрузочного события " + i + ": " + w1 + " " + w2)
+                    .put("category", categoryIds.get(rnd.nextInt(categoryIds.size())))
+                    .put("eventDate", LocalDateTime.now().plusDays(rnd.nextInt(1, 120)).format(FMT))
+                    .put("paid", rnd.nextBoolean())
+                    .put("participantLimit", rnd.nextDouble() < 0.3 ? 0 : rnd.nextInt(5, 200))
+                    .put("requestModeration", rnd.nextDouble() < 0.5);
+            e.putObject("location").put("lat", 55.75).put("lon", 37.61);
+            long id = api.post("/users/" + userIds.get(rnd.nextInt(userIds.size())) + "/events", e);
+            if (rnd.nextDouble() < publishedShare) {
+                api.patch("/admin/events/" + id, JSON.createObjectNode().put("stateAction", "PUBLISH_EVENT"));
+            }
+        }
+    }
+
+    /** Синхронные вызовы API для подготовки данных. */
+    private record Api(HttpClient client, URI target) {
+
+        long post(String path, JsonNode body) throws IOException, InterruptedException {
+            return send("POST", path, body).path("id").asLong();
+        }
+
+        void patch(String path, JsonNode body) throws IOException, InterruptedException {
+            send("PATCH", path, body);
+        }
+
+        List<Long> ids(String path) throws IOException, InterruptedException {
+            List<Long> ids = new ArrayList<>();
+            String sep = path.contains("?") ? "&" : "?";
+            for (int from = 0; from < DISCOVER_LIMIT; from += PAGE) {
+                JsonNode page = send("GET", path + sep + "from=" + from + "&size=" + PAGE, null);
+                page.forEach(n -> ids.add(n.path("id").asLong()));
+                if (page.size() < PAGE) {
+                    break;
+                }
+            }
+            return ids;
+        }
+
+        private JsonNode send(String method, String path, JsonNode body) throws IOException, InterruptedException {
+            HttpRequest.Builder b = HttpRequest.newBuilder(target.resolve(path)).header("Accept", "application/json");
+            if (body == null) {
+                b.method(method, HttpRequest.BodyPublishers.noBody());
+            } else {
+                b.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofString(body.toString()));
+            }
+            HttpResponse<String> resp = client.send(b.build(), HttpResponse.BodyHandlers.ofString());
+            if (resp.statusCode() >= 300) {
+                throw new IOException(method + " " + path + " -> " + resp.statusCode() + ": " + resp.body());
+            }
+            return JSON.readTree(resp.body());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package ru.practicum.ewm.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Точка входа: java -jar ewm-loadtest.jar &lt;run|stats-stub&gt; [--key=value ...].
+ * <ul>
+ *   <li>run — подготовить данные и прогнать сценарий против --target (по умолчанию http://localhost:8080);
+ *   --stats-stub=PORT заодно поднимает в этом процессе заглушку статистики (main-service должен смотреть на неё
+ *   через stats.url);</li>
+ *   <li>stats-stub [--port=9090] — только заглушка статистики, до остановки процесса;</li>
+ *   <li>threads — сравнение spring.threads.virtual.enabled=false/true: дважды запускает jar main-service
+ *   (--service-jar, --service-port=8081, --service-args="..." — подключение к БД и т.п.) против заглушки
+ *   статистики с задержкой (--stats-stub=9099, --stats-latency-ms=50), прогоняет одинаковый сценарий
+ *   (по умолчанию threads) и печатает итоги рядом; отчёты — &lt;label&gt;-platform и &lt;label&gt;-virtual.</li>
+ * </ul>
+ * Параметры прогона: --scenario=default|файл.jsonl, --rps, --duration, --warmup, --arrivals=uniform|poisson,
+ * --order=random|replay, --timeout, --max-in-flight, --client-ips, --skew, --setup-users, --setup-categories,
+ * --setup-events, --setup-published, --stats-latency-ms, --stats-error-rate, --label, --out.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Args a = Args.parse(args);
+        switch (a.command()) {
+            case "run" -> run(a);
+            case "stats-stub" -> stub(a);
+            case "threads" -> threads(a);
+            default -> throw new IllegalArgumentException("Unknown command " + a.command()
+                    + ": run | stats-stub | threads");
+        }
+    }
+
+    private static void stub(Args a) throws Exception {
+        try (StatsStandIn stub = standIn(a, a.getInt("port", 9090))) {
+            System.out.println("Stats stand-in listening on " + stub.port());
+            new CountDownLatch(1).await();
+        }
+    }
+
+    private static void run(Args a) throws Exception {
+        StatsStandIn stub = a.has("stats-stub") ? standIn(a, a.getInt("stats-stub", 9090)) : null;
+        try {
+            runAgainst(a, stub);
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private static void threads(Args a) throws Exception {
+        Path jar = Path.of(a.get("service-jar", "ewm-main-service/target/ewm-main-service-0.0.1-SNAPSHOT.jar"));
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("No service jar " + jar + ": build it or set --service-jar");
+        }
+        int port = a.getInt("service-port", 8081);
+        String label = a.get("label", "threads");
+        Map<String, String> common = new HashMap<>(a.values());
+        common.putIfAbsent("stats-latency-ms", "50");
+        common.putIfAbsent("scenario", "threads");
+        common.put("target", "http://localhost:" + port);
+
+        Map<String, EndpointStats> totals = new LinkedHashMap<>();
+        try (StatsStandIn stub = standIn(new Args("threads", common), a.getInt("stats-stub", 9099))) {
+            for (String mode : List.of("platform", "virtual")) {
+                Map<String, String> values = new HashMap<>(common);
+                values.put("label", label + "-" + mode);
+                if (!totals.isEmpty()) {
+                    // данные созданы первым прогоном: второй режим работает с тем же набором
+                    values.put("setup-users", "0");
+                    values.put("setup-categories", "0");
+                    values.put("setup-events", "0");
+                }
+                Path log = Path.of(a.get("out", "loadtest-results")).resolve(label + "-" + mode + ".log");
+                Files.createDirectories(log.getParent());
+                Process service = startService(jar, port, stub.port(), mode.equals("virtual"),
+                        a.get("service-args", ""), log);
+                try {
+                    awaitUp(service, URI.create(common.get("target")), log);
+                    totals.put(mode, runAgainst(new Args("run", values), stub));
+                } finally {
+                    service.destroy();
+                    if (!service.waitFor(30, TimeUnit.SECONDS)) {
+                        service.destroyForcibly().waitFor();
+                    }
+                }
+            }
+        }
+
+        System.out.printf("%n%-10s %8s %9s %9s %9s %9s %7s%n", "threads", "rps", "p50 ms", "p90 ms", "p99 ms",
+                "max ms", "err %");
+        double seconds = a.getDuration("duration", "60s").toMillis() / 1000.0;
+        totals.forEach((mode, s) -> System.out.printf("%-10s %8.1f %9.2f %9.2f %9.2f %9.2f %7.2f%n", mode,
+                s.requests() / seconds, s.percentileMs(50), s.percentileMs(90), s.percentileMs(99), s.maxMs(),
+                s.errorRate() * 100));
+    }
+
+    /** main-service тем же java, что и генератор; stats.url смотрит на заглушку. */
+    private static Process startService(Path jar, int port, int statsPort, boolean virtual, String extraArgs,
+                                        Path log) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                ProcessHandle.current().info().command().orElse("java"), "-jar", jar.toString(),
+                "--server.port=" + port,
+                "--stats.url=http://localhost:" + statsPort,
+                "--spring.threads.virtual.enabled=" + virtual));
+        if (!extraArgs.isBlank()) {
+            command.addAll(List.of(extraArgs.trim().split("\\s+")));
+        }
+        System.out.println("Starting " + String.join(" ", command));
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    }
+
+    private static void awaitUp(Process service, URI target, Path log) throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest probe = HttpRequest.newBuilder(target.resolve("/categories"))
+                    .timeout(Duration.ofSeconds(2)).build();
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+            while (System.nanoTime() < deadline) {
+                if (!service.isAlive()) {
+                    throw new IllegalStateException("Service exited with " + service.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return;
+                    }
+                } catch (IOException ex) {
+                    // ещё не слушает порт
+                }
+                Thread.sleep(1_000);
+            }
+        }
+        throw new IllegalStateException("Service did not start in 3 minutes, see " + log);
+    }
+
+    private static EndpointStats runAgainst(Args a, StatsStandIn stub) throws Exception {
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            URI target = URI.create(a.get("target", "http://localhost:8080"));
+            Scenario scenario = Scenario.load(a.get("scenario", "default"));
+            Fixtures fixtures = Fixtures.prepare(client, target, a);
+            fixtures.check(scenario);
+
+            Duration warmup = a.getDuration("warmup", "10s");
+            Duration duration = a.getDuration("duration", "60s");
+            System.out.printf("Running %s against %s: %s rps, warmup %ds, duration %ds%n", scenario.name(), target,
+                    a.get("rps", "50"), warmup.toSeconds(), duration.toSeconds());
+            String startedAt = Instant.now().toString();
+            OpenLoop loop = new OpenLoop(client, target, scenario, fixtures, a);
+            double seconds = loop.run(warmup, duration);
+            return report(a, scenario, startedAt, seconds, loop.stats(), stub);
+        }
+    }
+
+    private static StatsStandIn standIn(Args a, int port) throws Exception {
+        return new StatsStandIn(port, a.getInt("stats-latency-ms", 0), a.getDouble("stats-error-rate", 0));
+    }
+
+    /** Печатает и сохраняет отчёт; возвращает итог по всем эндпоинтам. */
+    private static EndpointStats report(Args a, Scenario scenario, String startedAt, double seconds,
+                               Map<String, EndpointStats> stats, StatsStandIn stub) throws Exception {
+        List<EndpointStats> endpoints = new ArrayList<>(stats.values());
+        endpoints.sort(Comparator.comparing(s -> s.label));
+        EndpointStats all = new EndpointStats("ALL");
+        endpoints.forEach(s -> s.addTo(all));
+        endpoints.add(all);
+
+        StringBuilder sb = new StringBuilder(String.format("%n%-30s %8s %8s %9s %9s %9s %9s %9s %7s %7s %7s%n",
+                "endpoint", "requests", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "err %", "4xx %",
+                "dropped"));
+        for (EndpointStats s : endpoints) {
+            sb.append(String.format("%-30s %8d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7.2f %7.2f %7d%n",
+                    s.label, s.requests(), s.requests() / seconds, s.percentileMs(50), s.percentileMs(90),
+                    s.percentileMs(99), s.percentileMs(99.9), s.maxMs(), s.errorRate() * 100,
+                    s.clientErrorRate() * 100, s.dropped()));
+        }
+        System.out.print(sb);
+
+        String label = a.get("label", "loadtest-" + startedAt.replace(':', '-'));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("startedAt", startedAt);
+        report.put("target", a.get("target", "http://localhost:8080"));
+        report.put("scenario", scenario.name());
+        report.put("options", a.values());
+        report.put("durationSeconds", seconds);
+        if (stub != null) {
+            report.put("statsStubRequests", stub.requests());
+        }
+        report.put("endpoints", endpoints.stream().map(s -> s.summary(seconds)).toList());
+        Path out = Path.of(a.get("out", "loadtest-results"));
+        Files.createDirectories(out);
+        Path file = out.resolve(label + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Report written to " + file.toAbsolutePath());
+        return all;
+    }
+}
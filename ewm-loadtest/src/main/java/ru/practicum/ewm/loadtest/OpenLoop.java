@@ -0,0 +1,149 @@
+package ru.practicum.ewm.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки: запросы отправляются по расписанию с заданной интенсивностью (--rps),
+ * независимо от того, успел ли сервис ответить на предыдущие. Интервалы — равные или
+ * экспоненциальные (--arrivals=poisson). Задержка считается от запланированного момента отправки,
+ * поэтому отставание генератора и очередь в сервисе попадают в замер (без coordinated omission).
+ * Запросы сверх --max-in-flight не отправляются и учитываются как dropped.
+ */
+final class OpenLoop {
+    private static final long PROGRESS_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final HttpClient client;
+    private final URI target;
+    private final Scenario scenario;
+    private final Fixtures fixtures;
+    private final double rps;
+    private final boolean poisson;
+    private final boolean replay;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final int clientIps;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenLoop(HttpClient client, URI target, Scenario scenario, Fixtures fixtures, Args args) {
+        this.client = client;
+        this.target = target;
+        this.scenario = scenario;
+        this.fixtures = fixtures;
+        this.rps = args.getDouble("rps", 50);
+        this.poisson = args.get("arrivals", "uniform").equals("poisson");
+        this.replay = args.get("order", "random").equals("replay");
+        this.timeout = args.getDuration("timeout", "10s");
+        this.maxInFlight = args.getInt("max-in-flight", 1_000);
+        this.clientIps = args.getInt("client-ips", 10_000);
+        scenario.templates().forEach(t -> stats.putIfAbsent(t.label(), new EndpointStats(t.label())));
+    }
+
+    Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    /** Прогон: warmup (не записывается), затем duration. Возвращает длительность записи, с. */
+    double run(Duration warmup, Duration duration) throws InterruptedException {
+        SplittableRandom rnd = new SplittableRandom();
+        double meanGap = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+        long nextProgress = start + PROGRESS_NANOS;
+        double intended = start;
+        for (long i = 0; ; i++) {
+            intended += poisson ? -Math.log(1 - rnd.nextDouble()) * meanGap : meanGap;
+            long at = (long) intended;
+            if (at >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = at - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario.Template t = replay ? scenario.at(i) : scenario.pick(rnd);
+            EndpointStats s = at >= recordFrom ? stats.get(t.label()) : null;
+            if (inFlight.get() >= maxInFlight) {
+                if (s != null) {
+                    s.drop();
+                }
+            } else {
+                send(request(t, rnd), at, s);
+            }
+            if (at >= nextProgress) {
+                progress(at - start, at < recordFrom);
+                nextProgress += PROGRESS_NANOS;
+            }
+        }
+        // ответы на последние запросы ещё записываются
+        long deadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return duration.toNanos() / 1e9;
+    }
+
+    private HttpRequest request(Scenario.Template t, SplittableRandom rnd) {
+        String body = fixtures.resolve(t.body(), rnd);
+        HttpRequest.Builder b = HttpRequest.newBuilder(target.resolve(fixtures.resolve(t.path(), rnd)))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                // разные клиенты — разные уникальные просмотры
+                .header("X-Forwarded-For", "10." + ip(rnd));
+        if (body == null) {
+            return b.method(t.method(), HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return b.header("Content-Type", "application/json")
+                .method(t.method(), HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private String ip(SplittableRandom rnd) {
+        int n = rnd.nextInt(clientIps);
+        return (n >> 16 & 0xff) + "." + (n >> 8 & 0xff) + "." + (n & 0xff);
+    }
+
+    private void send(HttpRequest request, long intended, EndpointStats s) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((resp, err) -> {
+                    inFlight.decrementAndGet();
+                    if (s == null) {
+                        return;
+                    }
+                    long nanos = System.nanoTime() - intended;
+                    Throwable cause = err instanceof CompletionException ? err.getCause() : err;
+                    if (cause == null) {
+                        s.response(resp.statusCode(), nanos);
+                    } else if (cause instanceof HttpTimeoutException) {
+                        s.timeout(nanos);
+                    } else {
+                        s.failure(nanos);
+                    }
+                });
+    }
+
+    private void progress(long elapsed, boolean warmup) {
+        long requests = 0;
+        long errors = 0;
+        for (EndpointStats s : stats.values()) {
+            requests += s.requests();
+            errors += s.errors();
+        }
+        System.out.printf("%5ds%s  requests %d, errors %d, in flight %d%n",
+                TimeUnit.NANOSECONDS.toSeconds(elapsed), warmup ? " (warmup)" : "", requests, errors, inFlight.get());
+    }
+}
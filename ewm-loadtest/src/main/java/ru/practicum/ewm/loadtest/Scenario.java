@@ -0,0 +1,112 @@
+package ru.practicum.ewm.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Сценарий нагрузки в формате JSON Lines, той же формы, что requests.jsonl: одна строка — один шаблон запроса.
+ * <ul>
+ *   <li>request_id — id шаблона;</li>
+ *   <li>title — "METHOD /path?query" (без метода — GET); вместо него можно задать method и path;</li>
+ *   <li>body — тело запроса: объект JSON или строка;</li>
+ *   <li>weight — доля в смеси (по умолчанию 1), label — имя в отчёте (по умолчанию request_id).</li>
+ * </ul>
+ * В path и body подставляются значения из Fixtures: {user}, {category}, {event}, {publishedEvent},
+ * {pendingEvent}, {word}. Встроенные сценарии — "default" (scenarios/default.jsonl) и "threads"
+ * (scenarios/threads.jsonl: в основном просмотр события, который ждёт ответа статистики).
+ */
+record Scenario(String name, List<Template> templates, double[] cumulativeWeights) {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+
+    record Template(String id, String label, String method, String path, String body, double weight) {
+    }
+
+    static Scenario load(String spec) throws IOException {
+        try (InputStream in = Scenario.class.getResourceAsStream("/scenarios/" + spec + ".jsonl")) {
+            if (in != null) {
+                return parse(spec, in);
+            }
+        }
+        try (InputStream in = Files.newInputStream(Path.of(spec))) {
+            return parse(spec, in);
+        }
+    }
+
+    static Scenario parse(String name, InputStream in) throws IOException {
+        List<Template> templates = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int n = 0;
+        while ((line = reader.readLine()) != null) {
+            n++;
+            if (line.isBlank()) {
+                continue;
+            }
+            templates.add(template(JSON.readTree(line), n));
+        }
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + name + " has no requests");
+        }
+        double[] cumulative = new double[templates.size()];
+        double sum = 0;
+        for (int i = 0; i < templates.size(); i++) {
+            sum += templates.get(i).weight();
+            cumulative[i] = sum;
+        }
+        return new Scenario(name, List.copyOf(templates), cumulative);
+    }
+
+    /** Случайный шаблон с учётом весов. */
+    Template pick(SplittableRandom rnd) {
+        double x = rnd.nextDouble(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (x < cumulativeWeights[i]) {
+                return templates.get(i);
+            }
+        }
+        return templates.get(templates.size() - 1);
+    }
+
+    /** i-й запрос при воспроизведении по порядку файла (по кругу). */
+    Template at(long i) {
+        return templates.get((int) (i % templates.size()));
+    }
+
+    private static Template template(JsonNode node, int line) {
+        String id = node.path("request_id").asText("line-" + line);
+        String method = node.path("method").asText(null);
+        String path = node.path("path").asText(null);
+        if (path == null) {
+            String title = node.path("title").asText("").trim();
+            int space = title.indexOf(' ');
+            if (space > 0 && METHODS.contains(title.substring(0, space).toUpperCase())) {
+                method = title.substring(0, space).toUpperCase();
+                path = title.substring(space + 1).trim();
+            } else {
+                path = title;
+            }
+        }
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Line " + line + " (" + id + "): expected \"METHOD /path\" in title or path");
+        }
+        JsonNode body = node.get("body");
+        return new Template(id,
+                node.path("label").asText(id),
+                method == null ? "GET" : method.toUpperCase(),
+                path,
+                body == null || body.isNull() ? null : body.isTextual() ? body.asText() : body.toString(),
+                node.path("weight").asDouble(1.0));
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.ewm.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.ViewStatsDto;
+
+/**
+ * Заглушка ewm-stats-server в памяти: тот же HTTP-контракт (/hit, /hit/batch, /hit/count, /stats, /hits),
+ * без БД. Окно времени в /stats не учитывается — считается вся история.
+ * Задержка (--stats-latency-ms, с разбросом ±50%) и доля ответов 503 (--stats-error-rate) задаются явно,
+ * чтобы мерить main-service отдельно от реальной статистики или проверить его поведение при её сбоях.
+ */
+final class StatsStandIn implements AutoCloseable {
+    private static final String APP = "ewm-main-service";
+
+    private final ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final HttpServer server;
+    private final long latencyMs;
+    private final double errorRate;
+    private final Map<String, Set<String>> ips = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final List<EndpointHitDto> feed = new ArrayList<>();
+    private final LongAdder requests = new LongAdder();
+
+    StatsStandIn(int port, long latencyMs, double errorRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        requests.increment();
+        try {
+            String path = ex.getRequestURI().getPath();
+            if (path.equals("/actuator/health")) {
+                send(ex, 200, Map.of("status", "UP"));
+                return;
+            }
+            delay();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                send(ex, 503, null);
+                return;
+            }
+            Map<String, List<String>> query = query(ex.getRequestURI().getRawQuery());
+            String method = ex.getRequestMethod();
+            switch (method + " " + path) {
+                case "POST /hit" -> {
+                    save(json.readValue(ex.getRequestBody(), EndpointHitDto.class));
+                    send(ex, 201, null);
+                }
+                case "POST /hit/batch" -> {
+                    json.readValue(ex.getRequestBody(), new TypeReference<List<EndpointHitDto>>() {
+                    }).forEach(this::save);
+                    send(ex, 201, null);
+                }
+                case "POST /hit/count" -> {
+                    EndpointHitDto hit = json.readValue(ex.getRequestBody(), EndpointHitDto.class);
+                    save(hit);
+                    send(ex, 201, new ViewStatsDto(APP, hit.getUri(), count(hit.getUri(), !"false".equals(first(query, "unique")))));
+                }
+                case "GET /stats" -> send(ex, 200, stats(query.getOrDefault("uris", List.of()),
+                        "true".equals(first(query, "unique"))));
+                case "GET /hits" -> send(ex, 200, feed(Long.parseLong(firstOr(query, "after", "0")),
+                        Integer.parseInt(firstOr(query, "size", "1000"))));
+                default -> send(ex, 404, null);
+            }
+        } catch (RuntimeException e) {
+            send(ex, 400, Map.of("error", e.toString()));
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void save(EndpointHitDto hit) {
+        ips.computeIfAbsent(hit.getUri(), u -> ConcurrentHashMap.newKeySet()).add(hit.getIp());
+        hits.computeIfAbsent(hit.getUri(), u -> new LongAdder()).increment();
+        synchronized (feed) {
+            hit.setId((long) feed.size() + 1);
+            feed.add(hit);
+        }
+    }
+
+    private long count(String uri, boolean unique) {
+        if (unique) {
+            Set<String> set = ips.get(uri);
+            return set == null ? 0 : set.size();
+        }
+        LongAdder n = hits.get(uri);
+        return n == null ? 0 : n.sum();
+    }
+
+    private List<ViewStatsDto> stats(List<String> uris, boolean unique) {
+        List<String> keys = uris.isEmpty() ? List.copyOf(hits.keySet()) : uris;
+        return keys.stream()
+                .filter(hits::containsKey)
+                .map(uri -> new ViewStatsDto(APP, uri, count(uri, unique)))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    private List<EndpointHitDto> feed(long after, int size) {
+        synchronized (feed) {
+            int from = (int) Math.min(Math.max(after, 0), feed.size());
+            return List.copyOf(feed.subList(from, Math.min(feed.size(), from + size)));
+        }
+    }
+
+    private void delay() {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep((long) (latencyMs * (0.5 + ThreadLocalRandom.current().nextDouble())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(HttpExchange ex, int status, Object body) throws IOException {
+        if (body == null) {
+            ex.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = json.writeValueAsBytes(body);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // uris приходят и повторяющимся параметром, и через запятую
+    private static Map<String, List<String>> query(String raw) {
+        Map<String, List<String>> res = new ConcurrentHashMap<>();
+        if (raw == null) {
+            return res;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            res.computeIfAbsent(key, k -> new ArrayList<>()).addAll(Arrays.asList(value.split(",")));
+        }
+        return res;
+    }
+
+    private static String first(Map<String, List<String>> query, String key) {
+        return firstOr(query, key, null);
+    }
+
+    private static String firstOr(Map<String, List<String>> query, String key, String def) {
+        List<String> v = query.get(key);
+        return v == null || v.isEmpty() ? def : v.get(0);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.ewm.main.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.ewm.main.dto.CompilationDto;
+import ru.practicum.ewm.main.dto.EventShortDto;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through кэш готовых CompilationDto (по id) и id страниц подборок (по pinned/from/size).
+ * Сбрасывается после коммита: create/update/delete подборки — её запись и все страницы,
+ * изменение события или его confirmedRequests — подборки с этим событием, переименование категории — всё.
+ * Каждый сброс увеличивает поколение; загрузка, начатая до сброса, свой результат не кэширует,
+ * иначе прочитанное до коммита состояние легло бы в кэш уже после сброса.
+ * DTO изменяемые, поэтому наружу отдаются копии, а кэшированный экземпляр не покидает кэш.
+ * Просмотры внутри DTO живут не дольше compilations.cache.ttl-ms.
+ * Метрики — cache.gets{cache=compilations} и cache.gets{cache=compilation.pages}.
+ */
+@Component
+public class CompilationCache {
+
+    private record PageKey(Boolean pinned, int from, int size) {
+    }
+
+    private final Cache<Long, CompilationDto> byId;
+    private final Cache<PageKey, List<Long>> pages;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CompilationCache(MeterRegistry registry,
+                            @Value("${compilations.cache.max-size:1000}") long maxSize,
+                            @Value("${compilations.cache.ttl-ms:10000}") long ttlMs) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, byId, "compilations");
+        CaffeineCacheMetrics.monitor(registry, pages, "compilation.pages");
+    }
+
+    /** id страницы; loader вызывается только при промахе. */
+    public List<Long> page(Boolean pinned, int from, int size, Supplier<List<Long>> loader) {
+        PageKey key = new PageKey(pinned, from, size);
+        List<Long> ids = pages.getIfPresent(key);
+        if (ids != null) {
+            return ids;
+        }
+        long stamp = generation.get();
+        List<Long> loaded = List.copyOf(loader.get());
+        putIfCurrent(pages, key, loaded, stamp);
+        return loaded;
+    }
+
+    /**
+     * Подборки по id: промахи уходят в loader одним вызовом. Id, которых нет в ответе loader
+     * (подборка удалена), в результате отсутствуют и не кэшируются.
+     */
+    public Map<Long, CompilationDto> getAll(Collection<Long> ids,
+                                            Function<Set<Long>, Map<Long, CompilationDto>> loader) {
+        Map<Long, CompilationDto> res = new HashMap<>(byId.getAllPresent(ids));
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(res.keySet());
+        if (!missing.isEmpty()) {
+            long stamp = generation.get();
+            Map<Long, CompilationDto> loaded = loader.apply(missing);
+            loaded.forEach((id, dto) -> putIfCurrent(byId, id, dto, stamp));
+            res.putAll(loaded);
+        }
+        res.replaceAll((id, dto) -> copy(dto));
+        return res;
+    }
+
+    public void evictCompilation(long compId) {
+        afterCommit(() -> {
+            byId.invalidate(compId);
+            pages.invalidateAll();
+        });
+    }
+
+    public void evictEvent(long eventId) {
+        afterCommit(() -> byId.asMap().values().removeIf(dto -> dto.getEvents().stream()
+                .anyMatch(e -> e.getId() == eventId)));
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            byId.invalidateAll();
+            pages.invalidateAll();
+        });
+    }
+
+    // запись под блокировкой ключа: сброс либо уже сменил поколение, либо удалит запись после неё
+    private <K, V> void putIfCurrent(Cache<K, V> cache, K key, V value, long stamp) {
+        cache.asMap().compute(key, (k, cached) -> generation.get() == stamp ? value : cached);
+    }
+
+    // до коммита параллельное чтение снова закэшировало бы старое состояние
+    private void afterCommit(Runnable eviction) {
+        Runnable bumped = () -> {
+            generation.incrementAndGet();
+            eviction.run();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumped.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bumped.run();
+            }
+        });
+    }
+
+    private static CompilationDto copy(CompilationDto dto) {
+        return dto.toBuilder()
+                .events(dto.getEvents() == null ? null
+                        : dto.getEvents().stream().map(CompilationCache::copy).collect(Collectors.toList()))
+                .build();
+    }
+
+    private static EventShortDto copy(EventShortDto e) {
+        return e.toBuilder()
+                .category(e.getCategory() == null ? null : e.getCategory().toBuilder().build())
+                .initiator(e.getInitiator() == null ? null : e.getInitiator().toBuilder().build())
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.ewm.main.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * JPQL-функции полнотекстового поиска PostgreSQL по events.search_vector.
+ * Колонка не маппится в сущность, в запросах она передаётся как column(e.search_vector).
+ * Поисковая строка приводится к text: null-параметр без типа Hibernate привязывает как bytea.
+ * Строка разбирается websearch_to_tsquery, последнее слово ищется как префикс (':*'):
+ * «conc» находит «concert», как прежний поиск по подстроке при наборе.
+ * Исключённое последнее слово остаётся точным: «rock -metal» не отсекает всё, что начинается на «metal».
+ * Регистрируется через META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class FullTextSearchFunctions implements FunctionContributor {
+
+    // 'jazz' & 'conc' -> 'jazz' & 'conc':*, но 'rock' & !'metal' не меняется
+    private static final String QUERY = "to_tsquery('simple', regexp_replace("
+            + "CAST(websearch_to_tsquery('simple', CAST(?2 AS text)) AS text), "
+            + "'(^|[^!])(''([^'']|'''')*'')$', '\\1\\2:*'))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_match",
+                "(?1 @@ " + QUERY + ")",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_rank",
+                "ts_rank_cd(?1, " + QUERY + ")",
+                types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
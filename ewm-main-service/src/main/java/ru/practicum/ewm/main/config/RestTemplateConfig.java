@@ -1,13 +1,43 @@
 package ru.practicum.ewm.main.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.stats.client.StatsHttp;
+
+import java.time.Duration;
 
 @Configuration
 public class RestTemplateConfig {
+
+    // пул keep-alive соединений к сервису статистики, тот же стек, что у ewm-stats-client
+    @Bean(destroyMethod = "close")
+    public StatsHttp statsHttp(@Value("${stats.http.connect-timeout-ms:1000}") long connectTimeoutMs,
+                               @Value("${stats.http.response-timeout-ms:3000}") long responseTimeoutMs,
+                               @Value("${stats.http.pool-timeout-ms:500}") long poolTimeoutMs,
+                               @Value("${stats.http.keep-alive-ms:30000}") long keepAliveMs,
+                               @Value("${stats.http.max-connections:50}") int maxConnections) {
+        // все запросы идут на один хост, поэтому лимит на маршрут равен общему
+        return new StatsHttp(new StatsHttp.Settings(
+                Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(responseTimeoutMs),
+                Duration.ofMillis(poolTimeoutMs),
+                Duration.ofMillis(keepAliveMs),
+                maxConnections,
+                maxConnections));
+    }
+
+    @Bean
+    public RestTemplate restTemplate(StatsHttp statsHttp) {
+        return statsHttp.restTemplate();
+    }
+
+    // httpcomponents.httpclient.pool.{total.max,total.connections,route.max.default,total.pending}{httpclient=stats}
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public MeterBinder statsHttpPoolMetrics(StatsHttp statsHttp) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(statsHttp.connectionManager(), "stats");
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,13 @@
 package ru.practicum.ewm.main.controller.admin;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.main.dto.EventFullDto;
 import ru.practicum.ewm.main.dto.UpdateEventAdminRequest;
 import ru.practicum.ewm.main.service.EventService;
+import ru.practicum.ewm.main.util.EventCursor;
 import org.springframework.web.bind.annotation.PatchMapping;
 
 import jakarta.validation.Valid;
@@ -27,8 +29,14 @@ public class AdminEventsController {
                                      @RequestParam(required = false) String rangeStart, // "yyyy-MM-dd HH:mm:ss"
                                      @RequestParam(required = false) String rangeEnd,   // "yyyy-MM-dd HH:mm:ss"
                                      @RequestParam(defaultValue = "0") @Min(0) int from,
-                                     @RequestParam(defaultValue = "10") @Min(1) int size) {
-        return eventService.searchAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+                                     @RequestParam(defaultValue = "10") @Min(1) int size,
+                                     @RequestParam(required = false) String after,
+                                     HttpServletResponse response) {
+        List<EventFullDto> result = eventService.searchAdmin(users, states, categories, rangeStart, rangeEnd, from, size, after);
+        if (result.size() == size) {
+            response.setHeader(EventCursor.HEADER, EventCursor.byId(result.get(size - 1).getId()));
+        }
+        return result;
     }
 
     @PatchMapping("/{eventId}")
@@ -1,11 +1,13 @@
 package ru.practicum.ewm.main.controller.private_;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.main.dto.*;
 import ru.practicum.ewm.main.service.EventService;
+import ru.practicum.ewm.main.util.EventCursor;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -31,9 +33,15 @@ public class PrivateEventsController {
     public List<EventShortDto> getUserEvents(
             @PathVariable long userId,
             @RequestParam(defaultValue = "0") @Min(0) int from,
-            @RequestParam(defaultValue = "10") @Min(1) int size
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            @RequestParam(required = false) String after,
+            HttpServletResponse response
     ) {
-        return eventService.getUserEvents(userId, from, size);
+        List<EventShortDto> result = eventService.getUserEvents(userId, from, size, after);
+        if (result.size() == size) {
+            response.setHeader(EventCursor.HEADER, EventCursor.byId(result.get(size - 1).getId()));
+        }
+        return result;
     }
 
     @GetMapping("/{eventId}")
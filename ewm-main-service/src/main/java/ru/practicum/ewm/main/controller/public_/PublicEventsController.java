@@ -1,6 +1,7 @@
 package ru.practicum.ewm.main.controller.public_;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
@@ -8,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.main.dto.EventFullDto;
 import ru.practicum.ewm.main.dto.EventShortDto;
 import ru.practicum.ewm.main.service.EventService;
+import ru.practicum.ewm.main.util.EventCursor;
 
 import java.util.List;
 
@@ -18,7 +20,8 @@ import java.util.List;
 public class PublicEventsController {
     private final EventService eventService;
 
-    private String clientIp(HttpServletRequest req) {
+    // пакетный доступ — для бенчмарка в ewm-benchmarks
+    static String clientIp(HttpServletRequest req) {
         String xff = req.getHeader("X-Forwarded-For");
         if (xff != null && !xff.isBlank()) {
             int comma = xff.indexOf(',');
@@ -38,7 +41,9 @@ public class PublicEventsController {
             @RequestParam(defaultValue = "EVENT_DATE") String sort,
             @RequestParam(defaultValue = "0") @Min(0) int from,
             @RequestParam(defaultValue = "10") @Min(1) int size,
-            HttpServletRequest request
+            @RequestParam(required = false) String after,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
         if (rangeStart != null && !rangeStart.isBlank()
                 && rangeEnd != null && !rangeEnd.isBlank()) {
@@ -49,13 +54,22 @@ public class PublicEventsController {
                 throw new ru.practicum.ewm.main.exception.BadRequestException("rangeEnd must be after or equal to rangeStart");
             }
         }
-        String normalizedSort = "VIEWS".equalsIgnoreCase(sort) ? "VIEWS" : "EVENT_DATE";
+        String normalizedSort = "VIEWS".equalsIgnoreCase(sort) ? "VIEWS"
+                : "RELEVANCE".equalsIgnoreCase(sort) ? "RELEVANCE" : "EVENT_DATE";
         String ip  = clientIp(request);
         String uri = request.getRequestURI();
-        return eventService.searchPublic(
+        List<EventShortDto> result = eventService.searchPublic(
                 text, categories, paid, rangeStart, rangeEnd, onlyAvailable,
-                normalizedSort, from, size, ip, uri
+                normalizedSort, from, size, after, ip, uri
         );
+        // курсор следующей страницы; для RELEVANCE keyset не поддерживается
+        if (result.size() == size && !"RELEVANCE".equals(normalizedSort)) {
+            EventShortDto last = result.get(size - 1);
+            response.setHeader(EventCursor.HEADER, "VIEWS".equals(normalizedSort)
+                    ? EventCursor.byViews(last.getViews(), last.getId())
+                    : EventCursor.byEventDate(last.getEventDate(), last.getId()));
+        }
+        return result;
     }
 
     @GetMapping("/{eventId}")
@@ -0,0 +1,8 @@
+package ru.practicum.ewm.main.exception;
+
+// запрос выполнил больше SQL-операторов, чем позволяет sql.budget (режим REJECT) — обычно N+1
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -8,6 +8,7 @@ import ru.practicum.ewm.main.model.Category;
 import ru.practicum.ewm.main.model.Event;
 import ru.practicum.ewm.main.model.Location;
 import ru.practicum.ewm.main.model.User;
+import ru.practicum.ewm.main.repository.projection.EventShortRow;
 
 @Mapper(
         config = CentralMapperConfig.class,
@@ -18,19 +19,28 @@ public interface EventMapper {
     // ===== entity -> DTO (short) =====
     @Mapping(target = "annotation", source = "event.annotation")
     @Mapping(target = "category", source = "event.category")
-    @Mapping(target = "confirmedRequests", source = "confirmedRequests")
+    @Mapping(target = "confirmedRequests", source = "event.confirmedRequests")
     @Mapping(target = "eventDate", source = "event.eventDate", qualifiedByName = "formatLdt")
     @Mapping(target = "id", source = "event.id")
     @Mapping(target = "initiator", source = "event.initiator")
     @Mapping(target = "paid", source = "event.paid")
     @Mapping(target = "title", source = "event.title")
     @Mapping(target = "views", source = "views")
-    EventShortDto toShortDto(Event event, Long confirmedRequests, Long views);
+    EventShortDto toShortDto(Event event, Long views);
+
+    // ===== projection row -> DTO (short) =====
+    @Mapping(target = "category.id", source = "row.categoryId")
+    @Mapping(target = "category.name", source = "row.categoryName")
+    @Mapping(target = "initiator.id", source = "row.initiatorId")
+    @Mapping(target = "initiator.name", source = "row.initiatorName")
+    @Mapping(target = "eventDate", source = "row.eventDate", qualifiedByName = "formatLdt")
+    @Mapping(target = "views", source = "views")
+    EventShortDto toShortDto(EventShortRow row, Long views);
 
     // ===== entity -> DTO (full) =====
     @Mapping(target = "annotation", source = "event.annotation")
     @Mapping(target = "category", source = "event.category")
-    @Mapping(target = "confirmedRequests", source = "confirmedRequests")
+    @Mapping(target = "confirmedRequests", source = "event.confirmedRequests")
     @Mapping(target = "createdOn", source = "event.createdOn", qualifiedByName = "formatLdt")
     @Mapping(target = "description", source = "event.description")
     @Mapping(target = "eventDate", source = "event.eventDate", qualifiedByName = "formatLdt")
@@ -44,7 +54,7 @@ public interface EventMapper {
     @Mapping(target = "state", expression = "java(event.getState() == null ? null : event.getState().name())")
     @Mapping(target = "title", source = "event.title")
     @Mapping(target = "views", source = "views")
-    EventFullDto toFullDto(Event event, Long confirmedRequests, Long views);
+    EventFullDto toFullDto(Event event, Long views);
 
     // ===== new DTO -> entity =====
     @Mapping(target = "id", ignore = true)
@@ -55,6 +65,8 @@ public interface EventMapper {
     @Mapping(target = "createdOn", ignore = true) // заполним в сервисе
     @Mapping(target = "publishedOn", ignore = true) // заполним при публикации
     @Mapping(target = "state", ignore = true)
+    @Mapping(target = "confirmedRequests", ignore = true)
+    @Mapping(target = "views", ignore = true)
     // заполним логикой (PENDING)
     Event fromNew(NewEventDto dto, Category category, User initiator, Location location);
 
@@ -8,12 +8,20 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "events")
+// план выборки для списков EventFullDto: всё, что читает EventMapper.toFullDto
+@NamedEntityGraph(name = Event.GRAPH_FULL, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator"),
+        @NamedAttributeNode("location")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Event {
+    public static final String GRAPH_FULL = "Event.full";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -60,4 +68,14 @@ public class Event {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private EventState state;
+
+    // счётчик меняется только через EventRepository.addConfirmedRequests
+    @Builder.Default
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
+    private Long confirmedRequests = 0L;
+
+    // уникальные просмотры из ленты статистики, обновляет EventViewsProjection
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private Long views = 0L;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ru.practicum.ewm.main.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** Позиция чтения ленты хитов сервиса статистики */
+@Entity
+@Table(name = "stats_sync_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsSyncState {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "last_hit_id", nullable = false)
+    private Long lastHitId;
+}
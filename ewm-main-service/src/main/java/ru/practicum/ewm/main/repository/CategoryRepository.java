@@ -1,8 +1,12 @@
 package ru.practicum.ewm.main.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewm.main.model.Category;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     boolean existsByName(String name);
+
+    Slice<Category> findAllBy(Pageable pageable);
 }
\ No newline at end of file
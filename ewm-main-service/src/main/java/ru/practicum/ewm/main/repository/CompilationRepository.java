@@ -1,11 +1,34 @@
 package ru.practicum.ewm.main.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.main.model.Compilation;
+import ru.practicum.ewm.main.repository.projection.CompilationEventRow;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
 
-    Page<Compilation> findAllByPinned(boolean pinned, Pageable pageable);
-}
\ No newline at end of file
+    // id страницы подборок; порядок по id, чтобы закэшированные страницы не пересекались
+    @Query("""
+       SELECT c.id FROM Compilation c
+        WHERE ( :pinned IS NULL OR c.pinned = :pinned )
+        ORDER BY c.id
+       """)
+    Slice<Long> findIds(@Param("pinned") Boolean pinned, Pageable pageable);
+
+    // события сразу нескольких подборок с категорией и инициатором — один запрос вместо ленивой загрузки
+    @Query("""
+       SELECT new ru.practicum.ewm.main.repository.projection.CompilationEventRow(
+              comp.id, e.id, e.title, e.annotation, e.eventDate, e.paid, e.confirmedRequests, e.views,
+              c.id, c.name, u.id, u.name)
+         FROM Compilation comp JOIN comp.events e JOIN e.category c JOIN e.initiator u
+        WHERE comp.id IN :ids
+        ORDER BY comp.id, e.id
+       """)
+    List<CompilationEventRow> findEventRows(@Param("ids") Collection<Long> ids);
+}
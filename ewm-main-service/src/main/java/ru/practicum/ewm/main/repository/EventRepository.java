@@ -1,24 +1,69 @@
 package ru.practicum.ewm.main.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.main.model.Event;
-import ru.practicum.ewm.main.model.User;
 import ru.practicum.ewm.main.model.enums.EventState;
+import ru.practicum.ewm.main.repository.projection.EventShortRow;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
 
-    Page<Event> findAllByInitiator(User initiator, Pageable pageable);
+    // списки возвращают Slice: size+1 строк вместо отдельного COUNT(*)
+
+    // строки для EventShortDto; afterId — keyset по (initiator_id, id)
+    @Query("""
+       SELECT new ru.practicum.ewm.main.repository.projection.EventShortRow(
+              e.id, e.title, e.annotation, e.eventDate, e.paid, e.confirmedRequests, e.views,
+              c.id, c.name, u.id, u.name)
+         FROM Event e JOIN e.category c JOIN e.initiator u
+        WHERE u.id = :initiatorId
+          AND ( :afterId IS NULL OR e.id > :afterId )
+       """)
+    Slice<EventShortRow> findShortByInitiator(@Param("initiatorId") Long initiatorId,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
 
     long countByCategory_Id(Long categoryId);
 
+    // условие проверяется под блокировкой строки: параллельные подтверждения не превысят лимит;
+    // 0 обновлённых строк — лимит исчерпан
+    @Modifying(flushAutomatically = true)
+    @Query("""
+       update Event e
+          set e.confirmedRequests = e.confirmedRequests + :delta
+        where e.id = :eventId
+          and (e.participantLimit = 0 or e.confirmedRequests + :delta <= e.participantLimit)
+       """)
+    int addConfirmedRequests(@Param("eventId") Long eventId, @Param("delta") long delta);
+
+    // новые пары (событие, ip) из ленты хитов дают +1 к events.views, повторные игнорируются
+    @Modifying
+    @Query(value = """
+       WITH fresh AS (
+           INSERT INTO event_view_ips (event_id, ip)
+           SELECT DISTINCT h.event_id, h.ip
+             FROM unnest(CAST(:eventIds AS BIGINT[]), CAST(:ips AS VARCHAR[])) AS h(event_id, ip)
+             JOIN events e ON e.id = h.event_id
+           ON CONFLICT DO NOTHING
+           RETURNING event_id
+       )
+       UPDATE events e
+          SET views = e.views + f.cnt
+         FROM (SELECT event_id, COUNT(*) AS cnt FROM fresh GROUP BY event_id) f
+        WHERE e.id = f.event_id
+       """, nativeQuery = true)
+    int applyViewHits(@Param("eventIds") Long[] eventIds, @Param("ips") String[] ips);
+
     // ---- ADMIN ----
+    @EntityGraph(Event.GRAPH_FULL)
     @Query("""
             SELECT e FROM Event e
             WHERE ( :#{#users == null || #users.isEmpty()} = true OR e.initiator.id IN :users )
@@ -26,33 +71,43 @@ public interface EventRepository extends JpaRepository<Event, Long> {
               AND ( :#{#categories == null || #categories.isEmpty()} = true OR e.category.id IN :categories )
               AND e.eventDate >= COALESCE(:rangeStart, e.eventDate)
               AND e.eventDate <= COALESCE(:rangeEnd,   e.eventDate)
+              AND ( :afterId IS NULL OR e.id < :afterId )
             """)
-    Page<Event> searchAdmin(@Param("users") List<Long> users,
+    Slice<Event> searchAdmin(@Param("users") List<Long> users,
                             @Param("states") List<EventState> states,
                             @Param("categories") List<Long> categories,
                             @Param("rangeStart") LocalDateTime rangeStart,
                             @Param("rangeEnd") LocalDateTime rangeEnd,
+                            @Param("afterId") Long afterId,
                             Pageable pageable);
 
     // ---- PUBLIC ----
+    // keyset-условия (afterDate/afterViews + afterId) повторяют ORDER BY: eventDate, id либо views desc, id
     @Query("""
-       SELECT e FROM Event e
+       SELECT new ru.practicum.ewm.main.repository.projection.EventShortRow(
+              e.id, e.title, e.annotation, e.eventDate, e.paid, e.confirmedRequests, e.views,
+              c.id, c.name, u.id, u.name)
+         FROM Event e JOIN e.category c JOIN e.initiator u
         WHERE e.state = ru.practicum.ewm.main.model.enums.EventState.PUBLISHED
-          AND (
-                :search IS NULL OR
-                LOWER(e.annotation)  LIKE :search OR
-                LOWER(e.description) LIKE :search OR
-                LOWER(e.title)       LIKE :search
-              )
+          AND ( :text IS NULL OR fts_match(column(e.search_vector), :text) = true )
           AND ( :#{#categories == null || #categories.isEmpty()} = true OR e.category.id IN :categories )
           AND ( :paid IS NULL OR e.paid = :paid )
           AND e.eventDate >= COALESCE(:rangeStart, e.eventDate)
           AND e.eventDate <= COALESCE(:rangeEnd,   e.eventDate)
+          AND ( :onlyAvailable = false OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit )
+          AND ( cast(:afterDate as LocalDateTime) IS NULL OR
+                ( e.eventDate >= :afterDate AND ( e.eventDate > :afterDate OR e.id > :afterId ) ) )
+          AND ( cast(:afterViews as Long) IS NULL OR
+                ( e.views <= :afterViews AND ( e.views < :afterViews OR e.id > :afterId ) ) )
        """)
-    Page<Event> searchPublic(@Param("search") String search,
-                             @Param("categories") List<Long> categories,
-                             @Param("paid") Boolean paid,
-                             @Param("rangeStart") LocalDateTime rangeStart,
-                             @Param("rangeEnd") LocalDateTime rangeEnd,
-                             Pageable pageable);
+    Slice<EventShortRow> searchPublic(@Param("text") String text,
+                                     @Param("categories") List<Long> categories,
+                                     @Param("paid") Boolean paid,
+                                     @Param("rangeStart") LocalDateTime rangeStart,
+                                     @Param("rangeEnd") LocalDateTime rangeEnd,
+                                     @Param("onlyAvailable") boolean onlyAvailable,
+                                     @Param("afterDate") LocalDateTime afterDate,
+                                     @Param("afterViews") Long afterViews,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import java.util.List;
 
 public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Long> {
 
+    // RequestMapper читает только event.id/requester.id — прокси не инициализируются, граф не нужен
     List<ParticipationRequest> findAllByRequester(User requester);
 
     List<ParticipationRequest> findAllByEvent(Event event);
@@ -29,7 +30,11 @@ public interface ParticipationRequestRepository extends JpaRepository<Participat
           set r.status = 'REJECTED'
         where r.event.id = :eventId
           and r.status = 'PENDING'
+          and exists (select e.id from Event e
+                       where e.id = :eventId
+                         and e.participantLimit > 0
+                         and e.confirmedRequests >= e.participantLimit)
        """)
-    int rejectAllPendingByEventId(@Param("eventId") Long eventId);
+    int rejectPendingIfLimitReached(@Param("eventId") Long eventId);
 
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package ru.practicum.ewm.main.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.ewm.main.model.StatsSyncState;
+
+public interface StatsSyncStateRepository extends JpaRepository<StatsSyncState, String> {
+
+    // водяной знак только растёт, повторная обработка пачки его не откатит
+    @Modifying
+    @Query("""
+       update StatsSyncState s
+          set s.lastHitId = :lastHitId
+        where s.name = :name
+          and s.lastHitId < :lastHitId
+       """)
+    int advance(@Param("name") String name, @Param("lastHitId") Long lastHitId);
+}
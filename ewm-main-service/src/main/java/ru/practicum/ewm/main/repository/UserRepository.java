@@ -1,11 +1,13 @@
 package ru.practicum.ewm.main.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewm.main.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    Page<User> findAllByIdIn(Iterable<Long> ids, Pageable pageable);
+    Slice<User> findAllBy(Pageable pageable);
+
+    Slice<User> findAllByIdIn(Iterable<Long> ids, Pageable pageable);
 }
\ No newline at end of file
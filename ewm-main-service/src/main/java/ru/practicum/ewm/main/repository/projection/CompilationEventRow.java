@@ -0,0 +1,23 @@
+package ru.practicum.ewm.main.repository.projection;
+
+import java.time.LocalDateTime;
+
+/** Событие подборки: id подборки и поля EventShortRow, одна строка на пару (подборка, событие) */
+public record CompilationEventRow(Long compilationId,
+                                  Long id,
+                                  String title,
+                                  String annotation,
+                                  LocalDateTime eventDate,
+                                  Boolean paid,
+                                  Long confirmedRequests,
+                                  Long views,
+                                  Long categoryId,
+                                  String categoryName,
+                                  Long initiatorId,
+                                  String initiatorName) {
+
+    public EventShortRow event() {
+        return new EventShortRow(id, title, annotation, eventDate, paid, confirmedRequests, views,
+                categoryId, categoryName, initiatorId, initiatorName);
+    }
+}
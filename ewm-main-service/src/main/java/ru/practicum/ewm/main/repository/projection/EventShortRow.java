@@ -0,0 +1,17 @@
+package ru.practicum.ewm.main.repository.projection;
+
+import java.time.LocalDateTime;
+
+/** Строка списка событий: только поля EventShortDto, без description и без управления сущностью */
+public record EventShortRow(Long id,
+                            String title,
+                            String annotation,
+                            LocalDateTime eventDate,
+                            Boolean paid,
+                            Long confirmedRequests,
+                            Long views,
+                            Long categoryId,
+                            String categoryName,
+                            Long initiatorId,
+                            String initiatorName) {
+}
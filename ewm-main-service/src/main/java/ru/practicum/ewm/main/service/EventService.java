@@ -6,10 +6,12 @@ import java.util.List;
 
 public interface EventService {
 
+    // after — курсор keyset-пагинации (EventCursor); если задан, from игнорируется
+
     // private (пользователь)
     EventFullDto createEvent(long userId, NewEventDto dto);
 
-    List<EventShortDto> getUserEvents(long userId, int from, int size);
+    List<EventShortDto> getUserEvents(long userId, int from, int size, String after);
 
     EventFullDto getUserEvent(long userId, long eventId);
 
@@ -17,14 +19,14 @@ public interface EventService {
 
     // admin
     List<EventFullDto> searchAdmin(List<Long> users, List<String> states, List<Long> categories,
-                                   String rangeStart, String rangeEnd, int from, int size);
+                                   String rangeStart, String rangeEnd, int from, int size, String after);
 
     EventFullDto updateAdminEvent(long eventId, UpdateEventAdminRequest dto);
 
     // public
     List<EventShortDto> searchPublic(String text, List<Long> categories, Boolean paid,
                                      String rangeStart, String rangeEnd, Boolean onlyAvailable,
-                                     String sort, int from, int size, String clientIp, String uri);
+                                     String sort, int from, int size, String after, String clientIp, String uri);
 
     EventFullDto getPublicEvent(long eventId, String clientIp, String uri);
 
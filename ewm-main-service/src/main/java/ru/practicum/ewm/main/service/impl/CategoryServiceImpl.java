@@ -1,9 +1,11 @@
 package ru.practicum.ewm.main.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.main.cache.CompilationCache;
 import ru.practicum.ewm.main.dto.CategoryDto;
 import ru.practicum.ewm.main.dto.NewCategoryDto;
 import ru.practicum.ewm.main.exception.ConflictException;
@@ -19,6 +21,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("ewm.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CategoryServiceImpl implements CategoryService {
@@ -26,6 +29,7 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
     private final CategoryMapper categoryMapper;
+    private final CompilationCache compilationCache;
 
     @Transactional
     @Override
@@ -65,12 +69,14 @@ public class CategoryServiceImpl implements CategoryService {
             cat.setName(dto.getName());
         }
         cat = categoryRepository.save(cat);
+        // имя категории входит в события закэшированных подборок
+        compilationCache.evictAll();
         return categoryMapper.toDto(cat);
     }
 
     @Override
     public List<CategoryDto> getAll(int from, int size) {
-        Page<Category> page = categoryRepository.findAll(PageUtils.by(from, size));
+        Slice<Category> page = categoryRepository.findAllBy(PageUtils.by(from, size));
         return page.stream().map(categoryMapper::toDto).collect(Collectors.toList());
     }
 
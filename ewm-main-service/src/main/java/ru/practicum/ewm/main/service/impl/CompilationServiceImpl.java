@@ -1,9 +1,10 @@
 package ru.practicum.ewm.main.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.main.cache.CompilationCache;
 import ru.practicum.ewm.main.dto.CompilationDto;
 import ru.practicum.ewm.main.dto.EventShortDto;
 import ru.practicum.ewm.main.dto.NewCompilationDto;
@@ -15,6 +16,7 @@ import ru.practicum.ewm.main.model.Compilation;
 import ru.practicum.ewm.main.model.Event;
 import ru.practicum.ewm.main.repository.CompilationRepository;
 import ru.practicum.ewm.main.repository.EventRepository;
+import ru.practicum.ewm.main.repository.projection.CompilationEventRow;
 import ru.practicum.ewm.main.service.CompilationService;
 import ru.practicum.ewm.main.util.PageUtils;
 
@@ -22,6 +24,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("ewm.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CompilationServiceImpl implements CompilationService {
@@ -30,14 +33,16 @@ public class CompilationServiceImpl implements CompilationService {
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
     private final EventMapper eventMapper;
+    private final CompilationCache compilationCache;
 
     @Transactional
     @Override
     public CompilationDto create(NewCompilationDto dto) {
         Set<Event> events = resolveEvents(dto.getEvents());
         Compilation comp = compilationMapper.fromNew(dto, events);
-        comp = compilationRepository.save(comp);
-        return toDtoWithShorts(comp);
+        comp = compilationRepository.saveAndFlush(comp);
+        compilationCache.evictCompilation(comp.getId());
+        return build(List.of(comp.getId())).get(comp.getId());
     }
 
     @Transactional
@@ -47,6 +52,7 @@ public class CompilationServiceImpl implements CompilationService {
             throw new NotFoundException("Compilation with id=" + compId + " was not found");
         }
         compilationRepository.deleteById(compId);
+        compilationCache.evictCompilation(compId);
     }
 
     @Transactional
@@ -58,23 +64,27 @@ public class CompilationServiceImpl implements CompilationService {
         compilationMapper.update(dto, comp, events);
         if (dto.getTitle() != null) comp.setTitle(dto.getTitle());
         if (dto.getPinned() != null) comp.setPinned(dto.getPinned());
-        comp = compilationRepository.save(comp);
-        return toDtoWithShorts(comp);
+        comp = compilationRepository.saveAndFlush(comp);
+        compilationCache.evictCompilation(compId);
+        return build(List.of(compId)).get(compId);
     }
 
     @Override
     public List<CompilationDto> getAll(Boolean pinned, int from, int size) {
-        Page<Compilation> page = (pinned == null)
-                ? compilationRepository.findAll(PageUtils.by(from, size))
-                : compilationRepository.findAllByPinned(pinned, PageUtils.by(from, size));
-        return page.stream().map(this::toDtoWithShorts).collect(Collectors.toList());
+        List<Long> ids = compilationCache.page(pinned, from, size,
+                () -> compilationRepository.findIds(pinned, PageUtils.by(from, size)).getContent());
+        Map<Long, CompilationDto> dtos = compilationCache.getAll(ids, this::build);
+        // удалённые между чтением страницы и подборок пропускаем
+        return ids.stream().map(dtos::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Override
     public CompilationDto getById(long compId) {
-        Compilation comp = compilationRepository.findById(compId)
-                .orElseThrow(() -> new NotFoundException("Compilation with id=" + compId + " was not found"));
-        return toDtoWithShorts(comp);
+        CompilationDto dto = compilationCache.getAll(List.of(compId), this::build).get(compId);
+        if (dto == null) {
+            throw new NotFoundException("Compilation with id=" + compId + " was not found");
+        }
+        return dto;
     }
 
     // ===== helpers =====
@@ -88,11 +98,20 @@ public class CompilationServiceImpl implements CompilationService {
         return new HashSet<>(events);
     }
 
-    private CompilationDto toDtoWithShorts(Compilation comp) {
-        List<EventShortDto> shorts = comp.getEvents() == null ? List.of()
-                : comp.getEvents().stream()
-                .map(e -> eventMapper.toShortDto(e, 0L, 0L))
-                .collect(Collectors.toList());
-        return compilationMapper.toDto(comp, shorts);
+    // подборки целиком: заголовки и события всех подборок одним запросом; просмотры — из events.views, как в поиске
+    private Map<Long, CompilationDto> build(Collection<Long> ids) {
+        List<Compilation> comps = compilationRepository.findAllById(ids);
+        if (comps.isEmpty()) return Map.of();
+        Map<Long, List<CompilationEventRow>> rows = compilationRepository.findEventRows(ids).stream()
+                .collect(Collectors.groupingBy(CompilationEventRow::compilationId));
+
+        Map<Long, CompilationDto> res = new HashMap<>();
+        for (Compilation comp : comps) {
+            List<EventShortDto> shorts = rows.getOrDefault(comp.getId(), List.of()).stream()
+                    .map(r -> eventMapper.toShortDto(r.event(), r.views()))
+                    .collect(Collectors.toList());
+            res.put(comp.getId(), compilationMapper.toDto(comp, shorts));
+        }
+        return res;
     }
 }
\ No newline at end of file
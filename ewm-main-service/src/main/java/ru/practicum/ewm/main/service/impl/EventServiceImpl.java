@@ -1,10 +1,13 @@
 package ru.practicum.ewm.main.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.main.cache.CompilationCache;
 import ru.practicum.ewm.main.dto.*;
 import ru.practicum.ewm.main.dto.enums.StateAction;
 import ru.practicum.ewm.main.exception.ConflictException;
@@ -13,10 +16,12 @@ import ru.practicum.ewm.main.exception.BadRequestException;
 import ru.practicum.ewm.main.mapper.EventMapper;
 import ru.practicum.ewm.main.model.*;
 import ru.practicum.ewm.main.model.enums.EventState;
-import ru.practicum.ewm.main.model.enums.RequestStatus;
 import ru.practicum.ewm.main.repository.*;
+import ru.practicum.ewm.main.repository.projection.EventShortRow;
 import ru.practicum.ewm.main.service.EventService;
+import ru.practicum.ewm.main.stats.EventViewsCache;
 import ru.practicum.ewm.main.stats.StatsClient;
+import ru.practicum.ewm.main.util.EventCursor;
 import ru.practicum.ewm.main.util.PageUtils;
 
 import java.time.LocalDateTime;
@@ -28,6 +33,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("ewm.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 @Slf4j
@@ -37,12 +43,16 @@ public class EventServiceImpl implements EventService {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final LocationRepository locationRepository;
-    private final ParticipationRequestRepository requestRepository;
     private final EventMapper eventMapper;
     private final StatsClient statsClient;
+    private final EventViewsCache viewsCache;
+    private final CompilationCache compilationCache;
 
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    // ранг совпадения с :text из EventRepository.searchPublic
+    public static final String RELEVANCE = "fts_rank(column(e.search_vector), :text)";
+
     // ===== PRIVATE (USER) =====
 
     @Transactional
@@ -73,15 +83,26 @@ public class EventServiceImpl implements EventService {
         event.setState(EventState.PENDING);
         event = eventRepository.save(event);
 
-        return eventMapper.toFullDto(event, 0L, 0L);
+        return eventMapper.toFullDto(event, 0L);
     }
 
     @Override
-    public List<EventShortDto> getUserEvents(long userId, int from, int size) {
-        User initiator = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
-        Page<Event> page = eventRepository.findAllByInitiator(initiator, PageUtils.by(from, size));
-        return enrichShort(page.getContent());
+    public List<EventShortDto> getUserEvents(long userId, int from, int size, String after) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User with id=" + userId + " not found");
+        }
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            afterId = EventCursor.parse(after, EventCursor.BY_ID).id();
+            from = 0;
+        }
+        List<EventShortRow> rows = eventRepository
+                .findShortByInitiator(userId, afterId, PageUtils.by(from, size, Sort.by("id")))
+                .getContent();
+        // списки EventShortDto везде берут просмотры из events.views, полные DTO — из статистики
+        return rows.stream()
+                .map(r -> eventMapper.toShortDto(r, r.views()))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -137,6 +158,7 @@ public class EventServiceImpl implements EventService {
         }
 
         event = eventRepository.save(event);
+        compilationCache.evictEvent(eventId);
         return enrichFull(event);
     }
 
@@ -144,7 +166,7 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public List<EventFullDto> searchAdmin(List<Long> users, List<String> states, List<Long> categories,
-                                          String rangeStart, String rangeEnd, int from, int size) {
+                                          String rangeStart, String rangeEnd, int from, int size, String after) {
         List<EventState> st = null;
         if (states != null && !states.isEmpty()) {
             st = states.stream().map(s -> EventState.valueOf(s.toUpperCase())).collect(Collectors.toList());
@@ -159,8 +181,15 @@ public class EventServiceImpl implements EventService {
             throw new BadRequestException("Incorrect date format. Expected pattern: yyyy-MM-dd HH:mm:ss");
         }
 
-        Page<Event> page = eventRepository.searchAdmin(users, st, categories, start, end, PageUtils.by(from, size, Sort.by("id").descending()));
-        return page.stream().map(this::enrichFull).collect(Collectors.toList());
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            afterId = EventCursor.parse(after, EventCursor.BY_ID).id();
+            from = 0;
+        }
+
+        Slice<Event> page = eventRepository.searchAdmin(users, st, categories, start, end, afterId,
+                PageUtils.by(from, size, Sort.by("id").descending()));
+        return enrichFull(page.getContent());
     }
 
     @Transactional
@@ -210,6 +239,7 @@ public class EventServiceImpl implements EventService {
         }
 
         event = eventRepository.save(event);
+        compilationCache.evictEvent(eventId);
         return enrichFull(event);
     }
 
@@ -225,6 +255,7 @@ public class EventServiceImpl implements EventService {
                                             String sort,
                                             int from,
                                             int size,
+                                            String after,
                                             String clientIp,
                                             String uri) {
         LocalDateTime start = null;
@@ -245,8 +276,12 @@ public class EventServiceImpl implements EventService {
             start = LocalDateTime.now();
         }
 
-        // Подготовка параметра для поиска, чтобы не вызывать LOWER на параметре в JPQL
-        String search = (text == null || text.isBlank()) ? null : "%" + text.toLowerCase() + "%";
+        // полнотекстовый поиск: строка уходит в websearch_to_tsquery как есть
+        String search = (text == null || text.isBlank()) ? null : text.trim();
+        boolean byRelevance = "RELEVANCE".equalsIgnoreCase(sort);
+        if (byRelevance && search == null) {
+            throw new BadRequestException("sort=RELEVANCE requires a non-empty text parameter");
+        }
 
         // фиксируем просмотр самого запроса (не валим логику при ошибке)
         try {
@@ -255,31 +290,51 @@ public class EventServiceImpl implements EventService {
             log.warn("Stats hit failed: {}", ex.toString());
         }
 
-        // сортировка
-        Sort s = "VIEWS".equalsIgnoreCase(sort) ? Sort.unsorted() : Sort.by("eventDate").ascending();
+        // сортировка: просмотры берём из локальной проекции, поэтому сортирует и пагинирует БД
+        Sort s;
+        boolean byViews = "VIEWS".equalsIgnoreCase(sort);
+        if (byViews) {
+            s = Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id"));
+        } else if (byRelevance) {
+            s = JpaSort.unsafe(Sort.Direction.DESC, RELEVANCE).and(Sort.by("id"));
+        } else {
+            s = Sort.by("eventDate", "id").ascending();
+        }
+
+        // keyset: продолжаем после строки из курсора, from не используется
+        LocalDateTime afterDate = null;
+        Long afterViews = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            if (byRelevance) {
+                throw new BadRequestException("Cursor pagination is not supported for sort=RELEVANCE");
+            }
+            EventCursor cursor = EventCursor.parse(after, byViews ? EventCursor.BY_VIEWS : EventCursor.BY_EVENT_DATE);
+            if (byViews) {
+                afterViews = cursor.views();
+            } else {
+                afterDate = cursor.eventDate();
+            }
+            afterId = cursor.id();
+            from = 0;
+        }
 
-        Page<Event> page = eventRepository.searchPublic(
+        Slice<EventShortRow> page = eventRepository.searchPublic(
                 search,
                 (categories == null || categories.isEmpty()) ? null : categories,
                 paid,
                 start,
                 end,
+                Boolean.TRUE.equals(onlyAvailable),
+                afterDate,
+                afterViews,
+                afterId,
                 PageUtils.by(from, size, s)
         );
 
-        List<Event> events = page.getContent();
-
-        // фильтр onlyAvailable
-        if (Boolean.TRUE.equals(onlyAvailable)) {
-            events = events.stream().filter(this::hasAvailableSlots).collect(Collectors.toList());
-        }
-
-        // enrich + сортировка по VIEWS
-        List<EventShortDto> result = enrichShort(events);
-        if ("VIEWS".equalsIgnoreCase(sort)) {
-            result.sort(Comparator.comparingLong(EventShortDto::getViews).reversed());
-        }
-        return result;
+        return page.stream()
+                .map(r -> eventMapper.toShortDto(r, r.views()))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -290,47 +345,30 @@ public class EventServiceImpl implements EventService {
             throw new NotFoundException("Event with id=" + eventId + " not found");
         }
 
-        // 1) считаем просмотры ДО отправки хитa
-        long before = 0L;
+        // хит и обновлённое число просмотров — одним запросом к статистике
+        long views;
         try {
-            before = fetchViewsByEventIds(List.of(eventId)).getOrDefault(eventId, 0L);
-        } catch (Exception ex) {
-            log.warn("Stats views (before) failed: {}", ex.toString());
-        }
-
-        // 2) отправляем hit (не заваливаем основной поток)
-        try {
-            statsClient.hit(uri, clientIp, LocalDateTime.now());
+            views = statsClient.hitAndCount(uri, clientIp, LocalDateTime.now());
+            viewsCache.put(eventId, views);
         } catch (Exception ex) {
             log.warn("Stats hit failed: {}", ex.toString());
+            views = fetchViewsByEventIds(List.of(eventId)).getOrDefault(eventId, 0L);
         }
-
-        // 3) возвращаем ответ с гарантированным +1
-        return enrichFull(event, before + 1);
+        return enrichFull(event, views);
     }
 
     // ===== Helpers =====
 
-    private boolean hasAvailableSlots(Event e) {
-        if (e.getParticipantLimit() == null || e.getParticipantLimit() == 0) return true;
-        long confirmed = requestRepository.countByEventAndStatus(e, RequestStatus.CONFIRMED);
-        return confirmed < e.getParticipantLimit();
-    }
-
-    private List<EventShortDto> enrichShort(List<Event> events) {
+    private List<EventFullDto> enrichFull(List<Event> events) {
         Map<Long, Long> views = fetchViewsByEventIds(events.stream().map(Event::getId).collect(Collectors.toList()));
         return events.stream()
-                .map(e -> eventMapper.toShortDto(e, countConfirmed(e), views.getOrDefault(e.getId(), 0L)))
+                .map(e -> eventMapper.toFullDto(e, views.getOrDefault(e.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
     private EventFullDto enrichFull(Event e) {
         long v = fetchViewsByEventIds(List.of(e.getId())).getOrDefault(e.getId(), 0L);
-        return eventMapper.toFullDto(e, countConfirmed(e), v);
-    }
-
-    private long countConfirmed(Event e) {
-        return requestRepository.countByEventAndStatus(e, RequestStatus.CONFIRMED);
+        return eventMapper.toFullDto(e, v);
     }
 
     private String emptyToNull(String s) {
@@ -339,30 +377,11 @@ public class EventServiceImpl implements EventService {
 
     private Map<Long, Long> fetchViewsByEventIds(Collection<Long> ids) {
         if (ids == null || ids.isEmpty()) return Collections.emptyMap();
-        List<String> uris = ids.stream().map(id -> "/events/" + id).collect(Collectors.toList());
-
-        Map<String, Long> byUri;
-        try {
-            byUri = statsClient.views(
-                    uris,
-                    LocalDateTime.of(2000, 1, 1, 0, 0),
-                    LocalDateTime.now().plusDays(1),
-                    true
-            );
-        } catch (Exception ex) {
-            log.warn("Stats views failed: {}", ex.toString());
-            byUri = Collections.emptyMap();
-        }
-
-        Map<Long, Long> res = new HashMap<>();
-        for (Long id : ids) {
-            res.put(id, byUri.getOrDefault("/events/" + id, 0L));
-        }
-        return res;
+        return viewsCache.get(ids);
     }
 
     private EventFullDto enrichFull(Event e, long views) {
-        return eventMapper.toFullDto(e, countConfirmed(e), views);
+        return eventMapper.toFullDto(e, views);
     }
 
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package ru.practicum.ewm.main.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.main.cache.CompilationCache;
 import ru.practicum.ewm.main.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.ewm.main.dto.EventRequestStatusUpdateResult;
 import ru.practicum.ewm.main.dto.ParticipationRequestDto;
@@ -24,6 +26,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("ewm.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class RequestServiceImpl implements ru.practicum.ewm.main.service.RequestService {
@@ -32,6 +35,7 @@ public class RequestServiceImpl implements ru.practicum.ewm.main.service.Request
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final RequestMapper requestMapper;
+    private final CompilationCache compilationCache;
 
     @Override
     public List<ParticipationRequestDto> getUserRequests(long userId) {
@@ -61,8 +65,7 @@ public class RequestServiceImpl implements ru.practicum.ewm.main.service.Request
         }
 
         if (event.getParticipantLimit() != null && event.getParticipantLimit() > 0) {
-            long confirmed = requestRepository.countByEventAndStatus(event, RequestStatus.CONFIRMED);
-            if (confirmed >= event.getParticipantLimit()) {
+            if (event.getConfirmedRequests() >= event.getParticipantLimit()) {
                 throw new ConflictException("The participant limit has been reached");
             }
         }
@@ -80,6 +83,12 @@ public class RequestServiceImpl implements ru.practicum.ewm.main.service.Request
                 .build();
 
         pr = requestRepository.save(pr);
+        if (status == RequestStatus.CONFIRMED) {
+            if (eventRepository.addConfirmedRequests(eventId, 1) == 0) {
+                throw new ConflictException("The participant limit has been reached");
+            }
+            compilationCache.evictEvent(eventId);
+        }
         return requestMapper.toDto(pr);
     }
 
@@ -93,6 +102,10 @@ public class RequestServiceImpl implements ru.practicum.ewm.main.service.Request
         if (!pr.getRequester().getId().equals(requester.getId())) {
             throw new NotFoundException("Request with id=" + requestId + " not found for user=" + userId);
         }
+        if (pr.getStatus() == RequestStatus.CONFIRMED) {
+            eventRepository.addConfirmedRequests(pr.getEvent().getId(), -1);
+            compilationCache.evictEvent(pr.getEvent().getId());
+        }
         pr.setStatus(RequestStatus.CANCELED);
         pr = requestRepository.save(pr);
         return requestMapper.toDto(pr);
@@ -138,32 +151,35 @@ public class RequestServiceImpl implements ru.practicum.ewm.main.service.Request
             throw new BadRequestException("Unknown target status: " + next);
         }
 
-        List<ParticipationRequest> requests = requestRepository.findAllById(ids);
+        Set<Long> idSet = new HashSet<>(ids);
+        List<ParticipationRequest> requests = requestRepository.findAllById(idSet);
+        // чужая заявка изменила бы счётчик не того события
+        if (requests.size() != idSet.size()
+                || requests.stream().anyMatch(r -> !r.getEvent().getId().equals(eventId))) {
+            throw new NotFoundException("Some requests were not found for event=" + eventId);
+        }
 
         // можно менять только PENDING
         if (requests.stream().anyMatch(r -> r.getStatus() != RequestStatus.PENDING)) {
             throw new ConflictException("Only pending requests can be modified");
         }
 
-        long confirmedNow = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
-        int limit = event.getParticipantLimit() == null ? 0 : event.getParticipantLimit();
-
         List<ParticipationRequestDto> confirmedDtos = new ArrayList<>();
         List<ParticipationRequestDto> rejectedDtos = new ArrayList<>();
 
         if ("CONFIRMED".equalsIgnoreCase(next)) {
+            // лимит проверяет сам UPDATE счётчика, а не прочитанная ранее сущность;
+            // он идёт до смены статусов, чтобы строка события блокировалась раньше строк заявок
+            if (eventRepository.addConfirmedRequests(eventId, requests.size()) == 0) {
+                throw new ConflictException("Participant limit reached");
+            }
             for (ParticipationRequest r : requests) {
-                if (limit > 0 && confirmedNow >= limit) {
-                    throw new ConflictException("Participant limit reached");
-                }
                 r.setStatus(RequestStatus.CONFIRMED);
-                confirmedNow++;
                 confirmedDtos.add(requestMapper.toDto(r));
             }
+            compilationCache.evictEvent(eventId);
             // как только лимит закрыт — оставшиеся PENDING у события отклоняем
-            if (limit > 0 && confirmedNow >= limit) {
-                requestRepository.rejectAllPendingByEventId(eventId);
-            }
+            requestRepository.rejectPendingIfLimitReached(eventId);
         } else { // REJECTED
             for (ParticipationRequest r : requests) {
                 r.setStatus(RequestStatus.REJECTED);
@@ -1,7 +1,8 @@
 package ru.practicum.ewm.main.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.main.dto.NewUserRequest;
@@ -17,6 +18,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("ewm.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
@@ -43,11 +45,11 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public List<UserDto> getAll(List<Long> ids, int from, int size) {
-        Page<User> page;
+        Slice<User> page;
         if (ids != null && !ids.isEmpty()) {
             page = userRepository.findAllByIdIn(ids, PageUtils.by(from, size));
         } else {
-            page = userRepository.findAll(PageUtils.by(from, size));
+            page = userRepository.findAllBy(PageUtils.by(from, size));
         }
         return page.stream().map(userMapper::toDto).collect(Collectors.toList());
     }
@@ -0,0 +1,36 @@
+package ru.practicum.ewm.main.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает DataSource прокси datasource-proxy со слушателем SqlQueryListener:
+ * отсюда берутся счётчики SqlScope и лог медленных запросов. sql.instrumentation.enabled=false — без обёртки.
+ */
+@Component
+public class DataSourceInstrumentation implements BeanPostProcessor {
+
+    private final boolean enabled;
+    private final long slowQueryMs;
+
+    public DataSourceInstrumentation(@Value("${sql.instrumentation.enabled:true}") boolean enabled,
+                                     @Value("${sql.slow-query-ms:200}") long slowQueryMs) {
+        this.enabled = enabled;
+        this.slowQueryMs = slowQueryMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(new SqlQueryListener(slowQueryMs))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.ewm.main.sql;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Запоминает, какой метод репозитория выполняется в потоке («EventRepository.searchAdmin»),
+ * чтобы подписать им медленные запросы и повторы в отчёте о бюджете.
+ * Встраивается в прокси Spring Data так же, как метрики репозиториев Spring Boot.
+ */
+@Component
+public class RepositoryMethodTracker implements BeanPostProcessor {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    static String current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxy, info) -> proxy.addAdvice(0, track(info.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private static MethodInterceptor track(String repository) {
+        return invocation -> {
+            String previous = CURRENT.get();
+            // вложенный вызов (default-метод репозитория) не перетирает внешний
+            if (previous == null) {
+                CURRENT.set(repository + "." + invocation.getMethod().getName());
+            }
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.ewm.main.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бюджет SQL на один HTTP-запрос: число операторов (sql.budget.max-statements)
+ * и суммарное время JDBC (sql.budget.max-time-ms).
+ * LOG — превышение пишется в лог вместе с самыми частыми операторами; REJECT — оператор сверх лимита
+ * не выполняется и запрос завершается 500 (SqlBudgetExceededException), время по-прежнему только в лог.
+ * На каждый запрос пишутся sql.request.statements и sql.request.time{method, uri}.
+ */
+@Component
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public enum Mode { LOG, REJECT }
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int maxStatements;
+    private final long maxTimeNanos;
+    private final Mode mode;
+
+    public SqlBudgetFilter(MeterRegistry registry,
+                           @Value("${sql.instrumentation.enabled:true}") boolean enabled,
+                           @Value("${sql.budget.max-statements:30}") int maxStatements,
+                           @Value("${sql.budget.max-time-ms:1000}") long maxTimeMs,
+                           @Value("${sql.budget.mode:LOG}") Mode mode) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.maxStatements = maxStatements;
+        this.maxTimeNanos = TimeUnit.MILLISECONDS.toNanos(maxTimeMs);
+        this.mode = mode;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String name = request.getMethod() + " " + request.getRequestURI();
+        try (SqlScope scope = SqlScope.open(name, mode == Mode.REJECT ? maxStatements : 0)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                report(request, scope);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlScope scope) {
+        if (scope.statements() == 0) return;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("sql.request.statements")
+                .description("SQL statements per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(scope.statements());
+        Timer.builder("sql.request.time")
+                .description("JDBC execution time per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(scope.jdbcNanos(), TimeUnit.NANOSECONDS);
+
+        boolean overStatements = maxStatements > 0 && scope.statements() > maxStatements;
+        boolean overTime = maxTimeNanos > 0 && scope.jdbcNanos() > maxTimeNanos;
+        if (overStatements || overTime) {
+            log.warn("SQL budget exceeded by {}: {} statements (max {}), {} ms JDBC (max {}); most repeated: {}",
+                    scope.name(), scope.statements(), maxStatements,
+                    TimeUnit.NANOSECONDS.toMillis(scope.jdbcNanos()), TimeUnit.NANOSECONDS.toMillis(maxTimeNanos),
+                    scope.mostRepeated(3));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.ewm.main.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.sql.Array;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Слушатель datasource-proxy: каждый выполненный оператор учитывается в SqlScope потока,
+ * операторы дольше slow-query-ms пишутся в лог с параметрами, методом репозитория
+ * и местом вызова в коде сервиса (для ленивой загрузки метода репозитория нет).
+ */
+@Slf4j
+class SqlQueryListener implements QueryExecutionListener {
+
+    private static final String STARTED = "sql.started";
+    private static final String APP_PACKAGE = "ru.practicum.ewm.main.";
+    private static final String OWN_PACKAGE = SqlQueryListener.class.getPackageName() + ".";
+    private static final int MAX_PARAM_SETS = 5;
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final long slowQueryNanos;
+
+    SqlQueryListener(long slowQueryMs) {
+        this.slowQueryNanos = slowQueryMs * 1_000_000;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+        SqlScope scope = SqlScope.current();
+        if (scope != null) {
+            scope.beforeStatement();
+        }
+        execInfo.addCustomValue(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+        Long started = execInfo.getCustomValue(STARTED, Long.class);
+        long elapsed = started == null ? 0 : System.nanoTime() - started;
+        String repositoryMethod = RepositoryMethodTracker.current();
+        SqlScope scope = SqlScope.current();
+        if (scope != null) {
+            for (QueryInfo q : queries) {
+                scope.afterStatement(repositoryMethod, q.getQuery(), elapsed / queries.size());
+            }
+        }
+        if (slowQueryNanos > 0 && elapsed >= slowQueryNanos) {
+            log.warn("Slow SQL {} ms [{}{}]{}: {} params {}",
+                    elapsed / 1_000_000,
+                    repositoryMethod == null ? "" : repositoryMethod + " ",
+                    caller(),
+                    scope == null ? "" : " in " + scope.name(),
+                    queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")),
+                    params(queries));
+        }
+    }
+
+    // первый кадр кода приложения вне этого пакета: EventServiceImpl.searchAdmin:212
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE) && !f.getClassName().startsWith(OWN_PACKAGE))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("?"));
+    }
+
+    private static String params(List<QueryInfo> queries) {
+        return queries.stream()
+                .flatMap(q -> q.getParametersList().stream())
+                .limit(MAX_PARAM_SETS)
+                .map(set -> set.stream()
+                        .sorted((a, b) -> Integer.compare(index(a), index(b)))
+                        .map(SqlQueryListener::value)
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(" "));
+    }
+
+    private static int index(ParameterSetOperation op) {
+        return op.getArgs()[0] instanceof Integer i ? i : 0;
+    }
+
+    private static String value(ParameterSetOperation op) {
+        Object[] args = op.getArgs();
+        if (op.getMethod().getName().equals("setNull") || args.length < 2) {
+            return "null";
+        }
+        String v = args[1] instanceof Array array ? arrayValue(array) : String.valueOf(args[1]);
+        return v.length() <= MAX_VALUE_LENGTH ? v : v.substring(0, MAX_VALUE_LENGTH) + "…";
+    }
+
+    private static String arrayValue(Array array) {
+        try {
+            return Arrays.deepToString((Object[]) array.getArray());
+        } catch (Exception e) {
+            return String.valueOf(array);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.ewm.main.sql;
+
+import ru.practicum.ewm.main.exception.SqlBudgetExceededException;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Учёт SQL текущего потока: число выполненных операторов и суммарное время их выполнения в JDBC.
+ * Области вкладываются (замер теста вокруг запроса MockMvc, внутри — область фильтра):
+ * оператор учитывается во всех открытых областях потока.
+ * Область с maxStatements &gt; 0 не даёт выполнить оператор сверх лимита — SqlBudgetExceededException.
+ */
+public final class SqlScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlScope> CURRENT = new ThreadLocal<>();
+    private static final int MAX_DISTINCT = 64;
+    private static final int MAX_SQL_LENGTH = 160;
+
+    private final String name;
+    private final int maxStatements;
+    private final SqlScope parent;
+    // число выполнений по «метод репозитория: SQL» — повторы одного запроса и есть N+1
+    private final Map<String, Integer> repeats = new LinkedHashMap<>();
+    private int statements;
+    private long nanos;
+
+    private SqlScope(String name, int maxStatements, SqlScope parent) {
+        this.name = name;
+        this.maxStatements = maxStatements;
+        this.parent = parent;
+    }
+
+    /** Открывает область в текущем потоке; закрывать в том же потоке (try-with-resources). */
+    public static SqlScope open(String name, int maxStatements) {
+        SqlScope scope = new SqlScope(name, maxStatements, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static SqlScope current() {
+        return CURRENT.get();
+    }
+
+    void beforeStatement() {
+        for (SqlScope s = this; s != null; s = s.parent) {
+            if (s.maxStatements > 0 && s.statements >= s.maxStatements) {
+                throw new SqlBudgetExceededException(s.name + ": SQL statement budget of " + s.maxStatements
+                        + " exceeded; most repeated: " + s.mostRepeated(3));
+            }
+        }
+    }
+
+    void afterStatement(String repositoryMethod, String sql, long elapsedNanos) {
+        String key = (repositoryMethod == null ? "" : repositoryMethod + ": ") + shorten(sql);
+        for (SqlScope s = this; s != null; s = s.parent) {
+            s.statements++;
+            s.nanos += elapsedNanos;
+            if (s.repeats.size() < MAX_DISTINCT || s.repeats.containsKey(key)) {
+                s.repeats.merge(key, 1, Integer::sum);
+            }
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long jdbcNanos() {
+        return nanos;
+    }
+
+    /** Самые частые операторы области: "50× EventRepository.findById: select ...". */
+    public List<String> mostRepeated(int limit) {
+        return repeats.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(e -> e.getValue() + "× " + e.getKey())
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    private static String shorten(String sql) {
+        String oneLine = sql.replaceAll("\\s+", " ").trim();
+        return oneLine.length() <= MAX_SQL_LENGTH ? oneLine : oneLine.substring(0, MAX_SQL_LENGTH) + "…";
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.ewm.main.stats;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш уникальных просмотров событий за всю историю поверх StatsClient.
+ * Ограничен по размеру (stats.views.cache.max-size) и времени жизни записи (ttl-ms).
+ * Одновременные промахи по одному id ждут один общий запрос к статистике; ошибка статистики не кэшируется.
+ * Метрики попаданий/промахов — cache.gets{cache=event.views}.
+ * Когда статистика недоступна (ошибка, открытый StatsGuard), отдаются последние известные значения:
+ * они хранятся без срока жизни, ограничены last-known-size; такие ответы — stats.fallbacks{operation=views.last-known}.
+ */
+@Component
+@Slf4j
+public class EventViewsCache {
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final StatsClient statsClient;
+    private final StatsMetrics metrics;
+    private final AsyncLoadingCache<Long, Long> cache;
+    private final Cache<Long, Long> lastKnown;
+
+    public EventViewsCache(StatsClient statsClient,
+                           StatsMetrics metrics,
+                           MeterRegistry registry,
+                           @Value("${stats.views.cache.max-size:10000}") long maxSize,
+                           @Value("${stats.views.cache.ttl-ms:10000}") long ttlMs,
+                           @Value("${stats.views.cache.last-known-size:100000}") long lastKnownSize) {
+        this.statsClient = statsClient;
+        this.metrics = metrics;
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(lastKnownSize)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync(new Loader());
+        CaffeineCacheMetrics.monitor(registry, cache, "event.views");
+    }
+
+    /** Просмотры по id; отсутствующие в статистике — 0. При недоступной статистике — последние известные. */
+    public Map<Long, Long> get(Collection<Long> eventIds) {
+        try {
+            return cache.getAll(eventIds).join();
+        } catch (CompletionException ex) {
+            log.warn("Stats views unavailable, serving last known: {}", ex.getCause().toString());
+            metrics.fallback("views.last-known");
+            Map<Long, Long> res = new HashMap<>();
+            for (Long id : eventIds) res.put(id, Objects.requireNonNullElse(lastKnown.getIfPresent(id), 0L));
+            return res;
+        }
+    }
+
+    /**
+     * Точное число просмотров, полученное вместе с хитом этого узла. Из двух ответов,
+     * пришедших не по порядку, остаётся больший: уникальные просмотры не убывают.
+     */
+    public void put(long eventId, long views) {
+        lastKnown.asMap().merge(eventId, views, Math::max);
+        cache.asMap().merge(eventId, CompletableFuture.completedFuture(views),
+                (cached, fresh) -> cached.isDone() && !cached.isCompletedExceptionally() && cached.join() > views
+                        ? cached
+                        : fresh);
+    }
+
+    private Map<Long, Long> load(Set<? extends Long> ids) {
+        Map<String, Long> byUri = statsClient.loadViews(
+                ids.stream().map(id -> "/events/" + id).collect(Collectors.toList()),
+                HISTORY_START,
+                LocalDateTime.now().plusDays(1),
+                true
+        );
+        Map<Long, Long> views = ids.stream().collect(Collectors.toMap(Function.identity(),
+                id -> byUri.getOrDefault("/events/" + id, 0L)));
+        lastKnown.putAll(views);
+        return views;
+    }
+
+    // загрузка идёт в потоке вызывающего: промахи одного getAll уходят в статистику одним запросом
+    private class Loader implements AsyncCacheLoader<Long, Long> {
+        @Override
+        public CompletableFuture<Long> asyncLoad(Long id, Executor executor) {
+            return asyncLoadAll(Set.of(id), executor).thenApply(m -> m.get(id));
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, Long>> asyncLoadAll(Set<? extends Long> ids, Executor executor) {
+            try {
+                return CompletableFuture.completedFuture(load(ids));
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.ewm.main.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.main.model.StatsSyncState;
+import ru.practicum.ewm.main.repository.EventRepository;
+import ru.practicum.ewm.main.repository.StatsSyncStateRepository;
+import ru.practicum.ewm.main.stats.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Применяет пачку хитов из ленты статистики к events.views.
+ * Просмотры уникальны по ip: пара (событие, ip) учитывается один раз,
+ * поэтому повторная обработка той же пачки ничего не меняет.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventViewsProjection {
+
+    static final String FEED = "event-views";
+
+    private static final Pattern EVENT_URI = Pattern.compile("/events/(\\d{1,18})");
+
+    private final EventRepository eventRepository;
+    private final StatsSyncStateRepository syncStateRepository;
+
+    @Value("${app.name:ewm-main-service}")
+    private String appName;
+
+    @Transactional(readOnly = true)
+    public long watermark() {
+        return syncStateRepository.findById(FEED).map(StatsSyncState::getLastHitId).orElse(0L);
+    }
+
+    /** @return наибольший id хита пачки; водяной знак двигает EventViewsSync через advance */
+    @Transactional
+    public long apply(List<EndpointHitDto> hits) {
+        List<Long> eventIds = new ArrayList<>();
+        List<String> ips = new ArrayList<>();
+        long last = 0L;
+        for (EndpointHitDto h : hits) {
+            last = Math.max(last, h.getId());
+            if (!appName.equals(h.getApp()) || h.getUri() == null) continue;
+            Matcher m = EVENT_URI.matcher(h.getUri());
+            if (m.matches()) {
+                eventIds.add(Long.valueOf(m.group(1)));
+                ips.add(h.getIp());
+            }
+        }
+        if (!eventIds.isEmpty()) {
+            eventRepository.applyViewHits(eventIds.toArray(new Long[0]), ips.toArray(new String[0]));
+        }
+        return last;
+    }
+
+    @Transactional
+    public void advance(long lastHitId) {
+        syncStateRepository.advance(FEED, lastHitId);
+    }
+}
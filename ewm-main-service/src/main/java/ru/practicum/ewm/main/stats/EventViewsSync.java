@@ -0,0 +1,104 @@
+package ru.practicum.ewm.main.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.main.stats.dto.EndpointHitDto;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Фоновый опрос ленты хитов сервиса статистики.
+ * Благодаря ему публичный поиск сортирует по просмотрам в БД и не ходит в статистику синхронно.
+ * id хита выдаётся до коммита, поэтому хит с меньшим id может появиться в ленте позже соседа
+ * (параллельные вставки, BUFFERED-сброс). Водяной знак — голова ленты stats.sync.lag-ms назад:
+ * опоздавший не больше чем на lag-ms хит будет учтён. Выше водяного знака запуск помнит уже применённые id
+ * и читает ленту с первого пропуска среди них, а не со знака; применяются только новые хиты.
+ * После рестарта окно lag-ms применяется ещё раз, что безвредно: пара событие–ip учитывается один раз.
+ */
+@Component
+@Slf4j
+public class EventViewsSync {
+
+    private record Head(long at, long hitId) {
+    }
+
+    private final StatsClient statsClient;
+    private final EventViewsProjection projection;
+    private final int batchSize;
+    private final long lagMs;
+
+    // головы ленты прошлых запусков, ещё не вышедшие за lag-ms
+    private final Deque<Head> heads = new ArrayDeque<>();
+    // применённые id выше водяного знака; запуски идут по очереди (fixedDelay)
+    private final NavigableSet<Long> seen = new TreeSet<>();
+
+    public EventViewsSync(StatsClient statsClient,
+                          EventViewsProjection projection,
+                          @Value("${stats.sync.batch-size:1000}") int batchSize,
+                          @Value("${stats.sync.lag-ms:30000}") long lagMs) {
+        this.statsClient = statsClient;
+        this.projection = projection;
+        this.batchSize = batchSize;
+        this.lagMs = lagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.sync.interval-ms:5000}")
+    public void sync() {
+        try {
+            long watermark = projection.watermark();
+            seen.headSet(watermark, true).clear();
+            long after = firstGap(watermark);
+            long head = after;
+            List<EndpointHitDto> hits;
+            do {
+                hits = statsClient.hitsAfter(after, batchSize);
+                if (hits.isEmpty()) break;
+                List<EndpointHitDto> fresh = hits.stream()
+                        .filter(h -> !seen.contains(h.getId()))
+                        .toList();
+                if (!fresh.isEmpty()) {
+                    projection.apply(fresh);
+                }
+                for (EndpointHitDto h : hits) {
+                    seen.add(h.getId());
+                    after = Math.max(after, h.getId());
+                }
+                head = Math.max(head, after);
+            } while (hits.size() >= batchSize);
+            advance(head);
+        } catch (Exception ex) {
+            // статистика недоступна — догоним на следующем запуске
+            log.warn("Stats views sync failed: {}", ex.toString());
+        }
+    }
+
+    // id перед первым непрочитанным: до него лента прочитана без пропусков
+    private long firstGap(long watermark) {
+        long after = watermark;
+        for (long id : seen) {
+            if (id != after + 1) break;
+            after = id;
+        }
+        return after;
+    }
+
+    // водяной знак — последняя голова, которой не меньше lag-ms
+    private void advance(long head) {
+        long now = System.currentTimeMillis();
+        heads.addLast(new Head(now, head));
+        long settled = -1;
+        while (!heads.isEmpty() && heads.peekFirst().at() <= now - lagMs) {
+            settled = heads.pollFirst().hitId();
+        }
+        if (settled > 0) {
+            projection.advance(settled);
+            seen.headSet(settled, true).clear();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.ewm.main.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.main.stats.dto.EndpointHitDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограниченная очередь хитов между потоками запросов и HitShipper.
+ * При переполнении поведение задаёт stats.hits.overflow, отброшенные хиты считаются в метрике.
+ */
+@Component
+@Slf4j
+public class HitBuffer {
+
+    public enum OverflowPolicy {
+        DROP_NEWEST, // новый хит отбрасывается
+        DROP_OLDEST, // вытесняется самый старый хит из очереди
+        BLOCK        // поток запроса ждёт место не дольше offer-timeout-ms, затем хит отбрасывается
+    }
+
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final OverflowPolicy policy;
+    private final long offerTimeoutMs;
+    private final Counter dropped;
+
+    public HitBuffer(@Value("${stats.hits.queue-capacity:10000}") int capacity,
+                     @Value("${stats.hits.overflow:DROP_NEWEST}") OverflowPolicy policy,
+                     @Value("${stats.hits.offer-timeout-ms:20}") long offerTimeoutMs,
+                     MeterRegistry registry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.dropped = Counter.builder("stats.hits.dropped")
+                .description("Hits dropped because the buffer was full")
+                .tag("policy", policy.name())
+                .register(registry);
+        Gauge.builder("stats.hits.queue.size", queue, Collection::size)
+                .description("Hits waiting to be shipped to the stats service")
+                .register(registry);
+    }
+
+    public void offer(EndpointHitDto hit) {
+        boolean accepted = switch (policy) {
+            case DROP_NEWEST -> queue.offer(hit);
+            case DROP_OLDEST -> offerEvictingOldest(hit);
+            case BLOCK -> offerBlocking(hit);
+        };
+        if (!accepted) {
+            dropped.increment();
+            log.debug("Stats hit buffer is full, hit dropped: {}", hit.getUri());
+        }
+    }
+
+    /**
+     * Ждёт первый хит не дольше timeoutMs, затем добирает до maxSize, пока не истечёт тот же срок.
+     * Возвращает пустой список, если хитов не было.
+     */
+    List<EndpointHitDto> takeBatch(List<EndpointHitDto> batch, int maxSize, long timeoutMs) throws InterruptedException {
+        EndpointHitDto first = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (first == null) return batch;
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (batch.size() < maxSize) {
+            queue.drainTo(batch, maxSize - batch.size());
+            long left = deadline - System.nanoTime();
+            if (batch.size() >= maxSize || left <= 0) break;
+            EndpointHitDto next = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    /** Забирает всё, что осталось, без ожидания (для сброса при остановке). */
+    List<EndpointHitDto> drain(List<EndpointHitDto> batch, int maxSize) {
+        queue.drainTo(batch, maxSize);
+        return batch;
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    private boolean offerEvictingOldest(EndpointHitDto hit) {
+        while (!queue.offer(hit)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(EndpointHitDto hit) {
+        try {
+            return queue.offer(hit, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
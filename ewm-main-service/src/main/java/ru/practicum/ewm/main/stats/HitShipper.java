@@ -0,0 +1,104 @@
+package ru.practicum.ewm.main.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.main.stats.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фоновый поток: забирает хиты из HitBuffer и отправляет их пачкой,
+ * как только набралось batch-size или прошло flush-interval-ms.
+ * Неудачная пачка не повторяется — статистика не должна копить память, когда сервис лежит.
+ * При остановке приложения дожидается отправки остатка, но не дольше shutdown-timeout-ms.
+ */
+@Component
+@Slf4j
+public class HitShipper {
+
+    private final HitBuffer buffer;
+    private final StatsClient statsClient;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final Counter sent;
+    private final Counter failed;
+    private final DistributionSummary batches;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public HitShipper(HitBuffer buffer,
+                      StatsClient statsClient,
+                      @Value("${stats.hits.batch-size:500}") int batchSize,
+                      @Value("${stats.hits.flush-interval-ms:1000}") long flushIntervalMs,
+                      @Value("${stats.hits.shutdown-timeout-ms:5000}") long shutdownTimeoutMs,
+                      MeterRegistry registry) {
+        this.buffer = buffer;
+        this.statsClient = statsClient;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.sent = Counter.builder("stats.hits.sent")
+                .description("Hits delivered to the stats service")
+                .register(registry);
+        this.failed = Counter.builder("stats.hits.failed")
+                .description("Hits lost because a batch could not be delivered")
+                .register(registry);
+        this.batches = DistributionSummary.builder("stats.hits.batch.size")
+                .description("Hits per batch sent to the stats service")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("stats-hit-shipper").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(shutdownTimeoutMs);
+        if (worker.isAlive()) {
+            log.warn("Stats hit shipper did not finish in {} ms, {} hits lost", shutdownTimeoutMs, buffer.size());
+        }
+    }
+
+    private void run() {
+        List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ship(buffer.takeBatch(batch, batchSize, flushIntervalMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // остановка: досылаем то, что успели положить в буфер
+        while (!buffer.drain(batch, batchSize).isEmpty()) {
+            ship(batch);
+        }
+    }
+
+    private void ship(List<EndpointHitDto> batch) {
+        if (batch.isEmpty()) return;
+        batches.record(batch.size());
+        try {
+            statsClient.sendHits(batch);
+            sent.increment(batch.size());
+        } catch (Exception ex) {
+            failed.increment(batch.size());
+            log.warn("Stats hit batch of {} failed: {}", batch.size(), ex.toString());
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ru.practicum.ewm.main.stats;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -19,6 +21,9 @@ import java.util.*;
 public class StatsClient {
 
     private final RestTemplate restTemplate;
+    private final HitBuffer hitBuffer;
+    private final StatsGuard guard;
+    private final StatsMetrics metrics;
 
     @Value("${stats-server.url:${stats.url:}}")
     private String statsBaseUrl;
@@ -26,56 +31,127 @@ public class StatsClient {
     @Value("${app.name:ewm-main-service}")
     private String appName;
 
+    // уникальные просмотры по HyperLogLog-скетчам сервиса статистики (быстрее, ошибка ~0.8%)
+    @Value("${stats.views.approximate:false}")
+    private boolean approximateViews;
+
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * Не блокирует поток запроса: хит кладётся в буфер, отправляет его HitShipper пачкой.
+     */
     public void hit(String uri, String ip, LocalDateTime ts) {
-        EndpointHitDto dto = EndpointHitDto.builder()
-                .app(appName)
-                .uri(uri)
-                .ip(ip)
-                .timestamp(ts.format(FMT))
-                .build();
+        if (statsBaseUrl == null || statsBaseUrl.isBlank()) return;
+        hitBuffer.offer(toHit(uri, ip, ts));
+    }
+
+    /**
+     * Синхронно записывает хит и возвращает обновлённое число уникальных просмотров его uri за всю историю.
+     * Ошибки пробрасываются вызывающему. Если StatsGuard не пропустил вызов, хит уходит в буфер HitShipper.
+     */
+    public long hitAndCount(String uri, String ip, LocalDateTime ts) {
+        if (statsBaseUrl == null || statsBaseUrl.isBlank()) return 0L;
+        URI url = UriComponentsBuilder.fromHttpUrl(statsBaseUrl)
+                .path("/hit/count")
+                .queryParam("unique", true)
+                .queryParam("approximate", approximateViews)
+                .build()
+                .toUri();
+        EndpointHitDto hit = toHit(uri, ip, ts);
+        ViewStatsDto counted;
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            if (statsBaseUrl == null || statsBaseUrl.isBlank()) return;
-            restTemplate.exchange(statsBaseUrl + "/hit", HttpMethod.POST, new HttpEntity<>(dto, headers), Void.class);
-        } catch (Exception ignored) {
-            // статистика недоступна — бизнес-логику не валим
+            counted = guard.call("hit.count", () -> restTemplate.postForObject(url, hit, ViewStatsDto.class));
+        } catch (CallNotPermittedException | BulkheadFullException ex) {
+            // запрос не отправлялся — хит не теряем
+            hitBuffer.offer(hit);
+            metrics.fallback("hit.buffered");
+            throw ex;
         }
+        return counted == null || counted.getHits() == null ? 0L : counted.getHits();
+    }
+
+    /** Синхронная отправка пачки в POST /hit/batch. Ошибки пробрасываются вызывающему. */
+    public void sendHits(List<EndpointHitDto> hits) {
+        if (statsBaseUrl == null || statsBaseUrl.isBlank() || hits.isEmpty()) return;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        metrics.record("hit.batch", () ->
+                restTemplate.exchange(statsBaseUrl + "/hit/batch", HttpMethod.POST, new HttpEntity<>(hits, headers), Void.class));
     }
 
     public Map<String, Long> views(Collection<String> uris, LocalDateTime start, LocalDateTime end, boolean unique) {
+        try {
+            return loadViews(uris, start, end, unique);
+        } catch (Exception ignored) {
+            // Любая ошибка статистики — как будто просмотров нет
+            metrics.fallback("views.zeros");
+            Map<String, Long> zeros = new HashMap<>();
+            if (uris != null) for (String u : uris) zeros.put(u, 0L);
+            return zeros;
+        }
+    }
+
+    /**
+     * То же, что views, но ошибки статистики пробрасываются — чтобы кэш не запомнил нули.
+     * Вызов идёт через StatsGuard.
+     */
+    public Map<String, Long> loadViews(Collection<String> uris, LocalDateTime start, LocalDateTime end, boolean unique) {
         Map<String, Long> zeros = new HashMap<>();
         if (uris == null || uris.isEmpty()) return zeros;
         for (String u : uris) zeros.put(u, 0L);
 
-        try {
-            if (statsBaseUrl == null || statsBaseUrl.isBlank()) return zeros;
-            UriComponentsBuilder b = UriComponentsBuilder.fromHttpUrl(statsBaseUrl)
-                    .path("/stats")
-                    .queryParam("start", start.format(FMT))
-                    .queryParam("end", end.format(FMT))
-                    .queryParam("unique", unique);
-
-            for (String u : uris) {
-                b.queryParam("uris", u);
+        if (statsBaseUrl == null || statsBaseUrl.isBlank()) return zeros;
+        URI uri = viewsUri(statsBaseUrl, uris, start, end, unique, unique && approximateViews);
+
+        ResponseEntity<ViewStatsDto[]> resp = guard.call("views", () -> restTemplate.getForEntity(uri, ViewStatsDto[].class));
+        ViewStatsDto[] body = resp.getBody();
+        if (body != null) {
+            for (ViewStatsDto v : body) {
+                zeros.put(v.getUri(), v.getHits() == null ? 0L : v.getHits());
             }
+        }
+        return zeros;
+    }
 
-            URI uri = b.encode().build(true).toUri();
+    static URI viewsUri(String baseUrl, Collection<String> uris, LocalDateTime start, LocalDateTime end,
+                        boolean unique, boolean approximate) {
+        UriComponentsBuilder b = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .path("/stats")
+                .queryParam("start", start.format(FMT))
+                .queryParam("end", end.format(FMT))
+                .queryParam("unique", unique)
+                .queryParam("approximate", approximate);
 
-            ResponseEntity<ViewStatsDto[]> resp = restTemplate.getForEntity(uri, ViewStatsDto[].class);
-            ViewStatsDto[] body = resp.getBody();
-            if (body != null) {
-                for (ViewStatsDto v : body) {
-                    zeros.put(v.getUri(), v.getHits() == null ? 0L : v.getHits());
-                }
-            }
-            return zeros;
-        } catch (Exception ignored) {
-            // Любая ошибка статистики — как будто просмотров нет
-            return zeros;
+        for (String u : uris) {
+            b.queryParam("uris", u);
         }
+
+        return b.encode().build().toUri();
+    }
+
+    private EndpointHitDto toHit(String uri, String ip, LocalDateTime ts) {
+        return EndpointHitDto.builder()
+                .app(appName)
+                .uri(uri)
+                .ip(ip)
+                .timestamp(ts.format(FMT))
+                .build();
+    }
+
+    /**
+     * Лента хитов после водяного знака. Ошибки не глотаем — вызывающий
+     * должен понять, что водяной знак двигать нельзя.
+     */
+    public List<EndpointHitDto> hitsAfter(long after, int size) {
+        if (statsBaseUrl == null || statsBaseUrl.isBlank()) return List.of();
+        URI uri = UriComponentsBuilder.fromHttpUrl(statsBaseUrl)
+                .path("/hits")
+                .queryParam("after", after)
+                .queryParam("size", size)
+                .build()
+                .toUri();
+        EndpointHitDto[] body = metrics.record("hits.feed", () -> restTemplate.getForObject(uri, EndpointHitDto[].class));
+        return body == null ? List.of() : Arrays.asList(body);
     }
 
 }
@@ -0,0 +1,139 @@
+package ru.practicum.ewm.main.stats;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import ru.practicum.stats.client.StatsHttp;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Защита синхронных обращений к статистике на пути запроса.
+ * Bulkhead ограничивает число одновременных вызовов, circuit breaker перестаёт звать сервис,
+ * пока тот падает или тормозит (оба — resilience4j, экземпляр "stats" в application.yml).
+ * Таймаут ответа подстраивается под задержку: percentile вызовов × multiplier
+ * в пределах [min-timeout-ms, stats.http.response-timeout-ms]. Сбой или таймаут идёт в окно
+ * длительностью не меньше своего таймаута, иначе при замедлении сервиса таймаут не рос бы;
+ * пробные вызовы HALF_OPEN ждут полный stats.http.response-timeout-ms.
+ * Состояние и переходы — /actuator/circuitbreakers, /actuator/circuitbreakerevents и health.
+ */
+@Component
+@Slf4j
+public class StatsGuard {
+
+    public static final String NAME = "stats";
+
+    private final StatsHttp statsHttp;
+    private final StatsMetrics metrics;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final LatencyWindow latencies;
+    private final double percentile;
+    private final double multiplier;
+    private final long minTimeoutMs;
+    private final long maxTimeoutMs;
+    private final int minSamples;
+
+    public StatsGuard(StatsHttp statsHttp,
+                      StatsMetrics metrics,
+                      CircuitBreakerRegistry circuitBreakers,
+                      BulkheadRegistry bulkheads,
+                      MeterRegistry registry,
+                      @Value("${stats.guard.timeout-percentile:0.99}") double percentile,
+                      @Value("${stats.guard.timeout-multiplier:3}") double multiplier,
+                      @Value("${stats.guard.min-timeout-ms:100}") long minTimeoutMs,
+                      @Value("${stats.http.response-timeout-ms:3000}") long maxTimeoutMs,
+                      @Value("${stats.guard.latency-window:200}") int window,
+                      @Value("${stats.guard.min-samples:20}") int minSamples) {
+        this.statsHttp = statsHttp;
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+        this.latencies = new LatencyWindow(window);
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.minTimeoutMs = minTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+        this.minSamples = minSamples;
+
+        circuitBreaker.getEventPublisher().onStateTransition(e ->
+                log.warn("Stats circuit breaker: {}", e.getStateTransition()));
+        Gauge.builder("stats.calls.timeout", this, g -> g.timeout().toMillis())
+                .description("Adaptive response timeout for stats calls, ms")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /**
+     * Выполняет вызов статистики. Открытый breaker и занятый bulkhead отказывают сразу:
+     * CallNotPermittedException и BulkheadFullException, запрос при этом не отправляется.
+     * Исход и длительность пишутся в stats.calls{operation}.
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        Duration timeout = timeout();
+        Supplier<T> timed = () -> {
+            long started = System.nanoTime();
+            try {
+                T result = statsHttp.withResponseTimeout(timeout, call);
+                latencies.record(System.nanoTime() - started);
+                return result;
+            } catch (HttpClientErrorException ex) {
+                // 4xx — сервис ответил вовремя
+                latencies.record(System.nanoTime() - started);
+                throw ex;
+            } catch (RuntimeException ex) {
+                latencies.record(Math.max(System.nanoTime() - started, timeout.toNanos()));
+                throw ex;
+            }
+        };
+        return metrics.record(operation,
+                Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, timed)));
+    }
+
+    Duration timeout() {
+        // пробы решают, закрыть ли breaker: урезанный таймаут держал бы его открытым
+        if (circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+            return Duration.ofMillis(maxTimeoutMs);
+        }
+        long p = latencies.percentile(percentile, minSamples);
+        if (p < 0) {
+            return Duration.ofMillis(maxTimeoutMs);
+        }
+        long ms = (long) Math.ceil(p * multiplier / 1_000_000.0);
+        return Duration.ofMillis(Math.max(minTimeoutMs, Math.min(maxTimeoutMs, ms)));
+    }
+
+    // последние N длительностей вызовов, нс; сбои — не меньше их таймаута
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) count++;
+        }
+
+        // -1, пока замеров меньше minSamples
+        synchronized long percentile(double p, int minSamples) {
+            if (count < minSamples) return -1;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.max(0, (int) Math.ceil(p * count) - 1)];
+        }
+    }
+}
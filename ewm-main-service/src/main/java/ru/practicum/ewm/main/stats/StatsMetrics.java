@@ -0,0 +1,64 @@
+package ru.practicum.ewm.main.stats;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Метрики обращений к статистике.
+ * stats.calls{operation, outcome} — длительность вызова; outcome: success, timeout (ответа, соединения
+ * или свободного соединения из пула), error, rejected (не пропустил StatsGuard, запрос не отправлялся).
+ * stats.fallbacks{operation} — ответ собран без статистики: последние известные значения, нули, хит в буфер.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatsMetrics {
+
+    private final MeterRegistry registry;
+
+    public <T> T record(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } catch (CallNotPermittedException | BulkheadFullException ex) {
+            outcome = "rejected";
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (isTimeout(ex)) outcome = "timeout";
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("stats.calls")
+                    .description("Calls to the stats service")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    public void fallback(String operation) {
+        Counter.builder("stats.fallbacks")
+                .description("Responses built without the stats service")
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+
+    // таймауты HttpClient 5 (SocketTimeoutException, ConnectTimeoutException, ConnectionRequestTimeoutException)
+    // — наследники InterruptedIOException, RestTemplate заворачивает их в ResourceAccessException
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedIOException) return true;
+        }
+        return false;
+    }
+}
@@ -8,6 +8,7 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 public class EndpointHitDto {
+    private Long id;           // заполняет сервис статистики
     private String app;        // имя сервиса: ewm-main-service
     private String uri;        // например: /events/123
     private String ip;         // клиентский IP
@@ -0,0 +1,77 @@
+package ru.practicum.ewm.main.util;
+
+import ru.practicum.ewm.main.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор keyset-пагинации списков событий: base64url от "сортировка|ключ|id".
+ * Сервер отдаёт курсор последней строки в заголовке X-Next-Cursor,
+ * клиент передаёт его обратно в параметре after вместо from.
+ */
+public final class EventCursor {
+    public static final String HEADER = "X-Next-Cursor";
+
+    public static final String BY_EVENT_DATE = "EVENT_DATE";
+    public static final String BY_VIEWS = "VIEWS";
+    public static final String BY_ID = "ID";
+
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final String key;
+    private final long id;
+
+    private EventCursor(String key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static String byEventDate(String eventDate, long id) {
+        return encode(BY_EVENT_DATE, eventDate, id);
+    }
+
+    public static String byViews(long views, long id) {
+        return encode(BY_VIEWS, Long.toString(views), id);
+    }
+
+    public static String byId(long id) {
+        return encode(BY_ID, "", id);
+    }
+
+    /** Разбирает курсор; курсор, выданный для другой сортировки, считается некорректным. */
+    public static EventCursor parse(String cursor, String sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(sort)) {
+                throw new IllegalArgumentException(raw);
+            }
+            EventCursor c = new EventCursor(parts[1], Long.parseLong(parts[2]));
+            if (BY_EVENT_DATE.equals(sort)) c.eventDate();
+            if (BY_VIEWS.equals(sort)) c.views();
+            return c;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor for sort " + sort + ": " + cursor);
+        }
+    }
+
+    public LocalDateTime eventDate() {
+        return LocalDateTime.parse(key, FMT);
+    }
+
+    public long views() {
+        return Long.parseLong(key);
+    }
+
+    public long id() {
+        return id;
+    }
+
+    private static String encode(String sort, String key, long id) {
+        String raw = sort + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
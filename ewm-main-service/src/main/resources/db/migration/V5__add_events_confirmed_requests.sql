@@ -0,0 +1,14 @@
+-- денормализованный счётчик подтверждённых заявок
+ALTER TABLE events
+    ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT NOT NULL DEFAULT 0;
+
+UPDATE events e
+   SET confirmed_requests = c.cnt
+  FROM (SELECT event_id, COUNT(*) AS cnt
+          FROM participation_requests
+         WHERE status = 'CONFIRMED'
+         GROUP BY event_id) c
+ WHERE c.event_id = e.id;
+
+ALTER TABLE events
+    ADD CONSTRAINT chk_events_confirmed_requests CHECK (confirmed_requests >= 0);
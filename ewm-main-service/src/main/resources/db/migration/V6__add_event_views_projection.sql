@@ -0,0 +1,21 @@
+-- локальная проекция уникальных просмотров событий (источник — лента хитов сервиса статистики)
+ALTER TABLE events
+    ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_events_views ON events (views DESC, id);
+
+-- пары (событие, ip), уже учтённые в events.views
+CREATE TABLE IF NOT EXISTS event_view_ips (
+    event_id BIGINT NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    ip VARCHAR(255) NOT NULL,
+    PRIMARY KEY (event_id, ip)
+);
+
+-- водяной знак: id последнего обработанного хита
+CREATE TABLE IF NOT EXISTS stats_sync_state (
+    name VARCHAR(64) PRIMARY KEY,
+    last_hit_id BIGINT NOT NULL
+);
+
+INSERT INTO stats_sync_state (name, last_hit_id) VALUES ('event-views', 0)
+ON CONFLICT DO NOTHING;
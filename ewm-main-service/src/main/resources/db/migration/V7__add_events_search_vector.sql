@@ -0,0 +1,13 @@
+-- полнотекстовый поиск: title важнее annotation, annotation важнее description
+ALTER TABLE events
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(annotation, '')), 'B') ||
+            setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+
+-- LIKE-поиск больше не используется
+DROP INDEX IF EXISTS idx_events_title_like;
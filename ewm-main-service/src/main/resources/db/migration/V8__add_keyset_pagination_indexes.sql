@@ -0,0 +1,9 @@
+-- индексы под keyset-пагинацию; порядок колонок совпадает с ORDER BY запросов
+-- публичный поиск: event_date, id только по опубликованным
+CREATE INDEX IF NOT EXISTS idx_events_published_date_id ON events (event_date, id) WHERE state = 'PUBLISHED';
+
+-- события пользователя: initiator_id, id (заменяет индекс по одному initiator_id)
+CREATE INDEX IF NOT EXISTS idx_events_initiator_id ON events (initiator_id, id);
+DROP INDEX IF EXISTS idx_events_initiator;
+
+-- админский поиск идёт по id desc — хватает обратного обхода первичного ключа
@@ -0,0 +1,24 @@
+package ru.practicum.ewm.main;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Интеграционный тест приложения целиком на PostgreSQL (миграции Flyway, MockMvc, профиль test).
+ * База общая для прогона: данные теста не должны пересекаться с данными других тестов.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(TestDatabase.class)
+@ContextConfiguration(initializers = TestDatabase.class)
+public @interface PostgresTest {
+}
@@ -0,0 +1,75 @@
+package ru.practicum.ewm.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Данные для интеграционных тестов через API; имена уникальны, база общая на прогон. */
+public class TestData {
+
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final AtomicLong SEQ = new AtomicLong(System.nanoTime());
+
+    private final MockMvc mvc;
+    private final ObjectMapper json;
+
+    public TestData(MockMvc mvc, ObjectMapper json) {
+        this.mvc = mvc;
+        this.json = json;
+    }
+
+    public static String unique(String prefix) {
+        return prefix + " " + SEQ.incrementAndGet();
+    }
+
+    public long user() throws Exception {
+        String name = unique("user");
+        return id(post("/admin/users"), Map.of("name", name, "email", name.replace(' ', '.') + "@test.ru"));
+    }
+
+    public long category() throws Exception {
+        return id(post("/admin/categories"), Map.of("name", unique("cat")));
+    }
+
+    /** Опубликованное событие без модерации заявок, participantLimit = limit. */
+    public long publishedEvent(long userId, long categoryId, int limit) throws Exception {
+        long eventId = id(post("/users/{userId}/events", userId), Map.of(
+                "annotation", "Annotation of a test event for integration tests",
+                "category", categoryId,
+                "description", "Description of a test event for integration tests",
+                "eventDate", LocalDateTime.now().plusDays(3).format(FMT),
+                "location", Map.of("lat", 55.7, "lon", 37.6),
+                "paid", false,
+                "participantLimit", limit,
+                "requestModeration", false,
+                "title", unique("event")));
+        send(patch("/admin/events/{eventId}", eventId), Map.of("stateAction", "PUBLISH_EVENT"));
+        return eventId;
+    }
+
+    public long compilation(boolean pinned, List<Long> eventIds) throws Exception {
+        return id(post("/admin/compilations"), Map.of("title", unique("comp"), "pinned", pinned, "events", eventIds));
+    }
+
+    public String send(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return mvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(json.writeValueAsString(body)))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private long id(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return ((Number) JsonPath.read(send(request, body), "$.id")).longValue();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.ewm.main;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * PostgreSQL для {@link PostgresTest}: готовая база из -Dewm.test.db.url (ewm.test.db.username/password,
+ * по умолчанию postgres/postgres) либо контейнер postgres:15, общий на все тесты.
+ * Без обоих тесты пропускаются с причиной в отчёте.
+ */
+public class TestDatabase implements ExecutionCondition, ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final String URL = "ewm.test.db.url";
+
+    private static PostgreSQLContainer<?> container;
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (System.getProperty(URL) != null) {
+            return ConditionEvaluationResult.enabled(URL + " is set");
+        }
+        return DockerClientFactory.instance().isDockerAvailable()
+                ? ConditionEvaluationResult.enabled("Docker is available")
+                : ConditionEvaluationResult.disabled("No PostgreSQL: set -D" + URL + " or start Docker");
+    }
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        String url = System.getProperty(URL);
+        if (url != null) {
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + System.getProperty("ewm.test.db.username", "postgres"),
+                    "spring.datasource.password=" + System.getProperty("ewm.test.db.password", "postgres")
+            ).applyTo(context);
+            return;
+        }
+        PostgreSQLContainer<?> db = container();
+        TestPropertyValues.of(
+                "spring.datasource.url=" + db.getJdbcUrl(),
+                "spring.datasource.username=" + db.getUsername(),
+                "spring.datasource.password=" + db.getPassword()
+        ).applyTo(context);
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:15");
+            container.start();
+        }
+        return container;
+    }
+}
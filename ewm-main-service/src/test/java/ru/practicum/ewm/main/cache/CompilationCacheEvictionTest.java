@@ -0,0 +1,79 @@
+package ru.practicum.ewm.main.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.main.PostgresTest;
+import ru.practicum.ewm.main.TestData;
+import ru.practicum.ewm.main.sql.SqlStatements;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// закэшированная подборка после изменения через API отдаётся уже новой
+@PostgresTest
+class CompilationCacheEvictionTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper json;
+
+    private TestData data;
+    private long category;
+    private long event;
+    private long compId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        data = new TestData(mvc, json);
+        category = data.category();
+        event = data.publishedEvent(data.user(), category, 0);
+        compId = data.compilation(false, List.of(event));
+        // прогрев кэша
+        mvc.perform(get("/compilations/{compId}", compId)).andExpect(status().isOk());
+    }
+
+    // без изменений подборка отдаётся из кэша, в БД не ходим
+    @Test
+    void warmCompilationRunsNoStatements() throws Exception {
+        SqlStatements.assertExactly(0, () -> mvc.perform(get("/compilations/{compId}", compId))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void eventEditEvictsCompilation() throws Exception {
+        String title = TestData.unique("renamed event");
+        data.send(patch("/admin/events/{eventId}", event), Map.of("title", title));
+
+        mvc.perform(get("/compilations/{compId}", compId))
+                .andExpect(jsonPath("$.events[0].title").value(title));
+    }
+
+    @Test
+    void confirmedRequestEvictsCompilation() throws Exception {
+        mvc.perform(post("/users/{userId}/requests", data.user()).param("eventId", String.valueOf(event)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+
+        mvc.perform(get("/compilations/{compId}", compId))
+                .andExpect(jsonPath("$.events[0].confirmedRequests").value(1));
+    }
+
+    @Test
+    void categoryRenameEvictsCompilation() throws Exception {
+        String name = TestData.unique("renamed cat");
+        data.send(patch("/admin/categories/{catId}", category), Map.of("name", name));
+
+        mvc.perform(get("/compilations/{compId}", compId))
+                .andExpect(jsonPath("$.events[0].category.name").value(name));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.ewm.main.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.main.dto.CategoryDto;
+import ru.practicum.ewm.main.dto.CompilationDto;
+import ru.practicum.ewm.main.dto.EventShortDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompilationCacheTest {
+
+    private final CompilationCache cache = new CompilationCache(new SimpleMeterRegistry(), 100, 60_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // сброс пришёл, пока загрузка читала старое состояние: результат не должен пережить сброс
+    @Test
+    void loadStartedBeforeEvictionIsNotCached() {
+        cache.getAll(List.of(1L), ids -> {
+            loads.incrementAndGet();
+            cache.evictEvent(10L);
+            return Map.of(1L, compilation("old"));
+        });
+
+        assertThat(cache.getAll(List.of(1L), ids -> load("new")).get(1L).getTitle()).isEqualTo("new");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void pageLoadStartedBeforeEvictionIsNotCached() {
+        cache.page(true, 0, 10, () -> {
+            loads.incrementAndGet();
+            cache.evictCompilation(1L);
+            return List.of(1L);
+        });
+
+        assertThat(cache.page(true, 0, 10, () -> {
+            loads.incrementAndGet();
+            return List.of(1L, 2L);
+        })).containsExactly(1L, 2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadAfterEvictionIsCached() {
+        cache.evictAll();
+        cache.getAll(List.of(1L), ids -> load("first"));
+
+        assertThat(cache.getAll(List.of(1L), ids -> load("second")).get(1L).getTitle()).isEqualTo("first");
+        assertThat(loads).hasValue(1);
+    }
+
+    // изменение отданного DTO не трогает кэшированный экземпляр
+    @Test
+    void callersGetCopies() {
+        CompilationDto given = cache.getAll(List.of(1L), ids -> load("title")).get(1L);
+        given.setTitle("changed");
+        given.getEvents().get(0).setViews(99L);
+        given.getEvents().get(0).getCategory().setName("changed");
+        given.getEvents().add(new EventShortDto());
+
+        CompilationDto cached = cache.getAll(List.of(1L), ids -> load("reloaded")).get(1L);
+        assertThat(cached.getTitle()).isEqualTo("title");
+        assertThat(cached.getEvents()).hasSize(1);
+        assertThat(cached.getEvents().get(0).getViews()).isEqualTo(5L);
+        assertThat(cached.getEvents().get(0).getCategory().getName()).isEqualTo("cat");
+    }
+
+    private Map<Long, CompilationDto> load(String title) {
+        loads.incrementAndGet();
+        return Map.of(1L, compilation(title));
+    }
+
+    private static CompilationDto compilation(String title) {
+        EventShortDto event = EventShortDto.builder()
+                .id(10L)
+                .category(new CategoryDto(1L, "cat"))
+                .views(5L)
+                .build();
+        return new CompilationDto(1L, title, false, new ArrayList<>(List.of(event)));
+    }
+}
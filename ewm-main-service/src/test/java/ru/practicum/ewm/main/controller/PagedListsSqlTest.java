@@ -0,0 +1,64 @@
+package ru.practicum.ewm.main.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.main.PostgresTest;
+import ru.practicum.ewm.main.TestData;
+import ru.practicum.ewm.main.sql.SqlStatements;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// списки отдают Slice: следующая страница определяется по size+1 строке, без второго запроса COUNT(*)
+@PostgresTest
+class PagedListsSqlTest {
+
+    private static final Pattern COUNT = Pattern.compile("\\bcount\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper json;
+
+    private long userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestData data = new TestData(mvc, json);
+        userId = data.user();
+        long category = data.category();
+        long event = data.publishedEvent(userId, category, 0);
+        data.publishedEvent(userId, category, 0);
+        data.compilation(false, List.of(event));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/admin/users?from=0&size=2",
+            "/admin/users?ids={userId}&from=0&size=2",
+            "/categories?from=0&size=2",
+            "/admin/events?from=0&size=2",
+            "/events?from=0&size=2",
+            "/events?from=0&size=2&sort=VIEWS",
+            "/users/{userId}/events?from=0&size=1",
+            "/compilations?from=0&size=2"
+    })
+    void listRunsNoCountQuery(String uri) throws Exception {
+        SqlStatements.Count c = SqlStatements.assertAtMost(3, () -> mvc.perform(get(uri, userId))
+                .andExpect(status().isOk()));
+        List<String> counts = c.executed().stream()
+                .filter(sql -> COUNT.matcher(sql).find())
+                // existsById — проверка владельца списка, а не подсчёт страницы
+                .filter(sql -> !sql.contains(".existsById:"))
+                .toList();
+        assertThat(counts).as("count queries in %s", c.executed()).isEmpty();
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.ewm.main.controller.private_;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.main.PostgresTest;
+import ru.practicum.ewm.main.TestData;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@PostgresTest
+class PrivateEventRequestsControllerTest {
+
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper json;
+
+    private TestData data;
+    private long owner;
+    private long category;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        data = new TestData(mvc, json);
+        owner = data.user();
+        category = data.category();
+    }
+
+    // заявка другого события не подтверждается и не меняет счётчик ни одного из событий
+    @Test
+    void requestOfAnotherEventIsNotFound() throws Exception {
+        long event = moderatedEvent(5);
+        long other = moderatedEvent(5);
+        long foreign = request(data.user(), other);
+
+        mvc.perform(patch("/users/{userId}/events/{eventId}/requests", owner, event)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json.writeValueAsString(Map.of("requestIds", List.of(foreign), "status", "CONFIRMED"))))
+                .andExpect(status().isNotFound());
+
+        confirmed(event, 0);
+        confirmed(other, 0);
+    }
+
+    @Test
+    void parallelConfirmationsStayWithinLimit() throws Exception {
+        long event = moderatedEvent(1);
+        List<Long> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            requests.add(request(data.user(), event));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(requests.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (long id : requests) {
+                statuses.add(pool.submit(() -> {
+                    start.await();
+                    return mvc.perform(patch("/users/{userId}/events/{eventId}/requests", owner, event)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(json.writeValueAsString(Map.of("requestIds", List.of(id), "status", "CONFIRMED"))))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            int ok = 0;
+            for (Future<Integer> s : statuses) {
+                int code = s.get();
+                assertThat(code).isIn(200, 409);
+                ok += code == 200 ? 1 : 0;
+            }
+            assertThat(ok).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+        confirmed(event, 1);
+    }
+
+    private long moderatedEvent(int limit) throws Exception {
+        String created = data.send(post("/users/{userId}/events", owner), Map.of(
+                "annotation", "Annotation of a moderated test event",
+                "category", category,
+                "description", "Description of a moderated test event",
+                "eventDate", LocalDateTime.now().plusDays(3).format(FMT),
+                "location", Map.of("lat", 55.7, "lon", 37.6),
+                "paid", false,
+                "participantLimit", limit,
+                "requestModeration", true,
+                "title", TestData.unique("moderated")));
+        long eventId = ((Number) JsonPath.read(created, "$.id")).longValue();
+        data.send(patch("/admin/events/{eventId}", eventId), Map.of("stateAction", "PUBLISH_EVENT"));
+        return eventId;
+    }
+
+    private long request(long userId, long eventId) throws Exception {
+        String body = mvc.perform(post("/users/{userId}/requests", userId).param("eventId", String.valueOf(eventId)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+
+    private void confirmed(long eventId, int expected) throws Exception {
+        mvc.perform(get("/users/{userId}/events/{eventId}", owner, eventId))
+                .andExpect(jsonPath("$.confirmedRequests").value(expected));
+    }
+}
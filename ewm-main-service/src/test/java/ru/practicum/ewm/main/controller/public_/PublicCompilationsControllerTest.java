@@ -0,0 +1,54 @@
+package ru.practicum.ewm.main.controller.public_;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewm.main.PostgresTest;
+import ru.practicum.ewm.main.TestData;
+import ru.practicum.ewm.main.sql.SqlStatements;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@PostgresTest
+class PublicCompilationsControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper json;
+
+    private long compId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestData data = new TestData(mvc, json);
+        long user = data.user();
+        long category = data.category();
+        List<Long> events = List.of(
+                data.publishedEvent(user, category, 0),
+                data.publishedEvent(user, category, 0),
+                data.publishedEvent(user, category, 0));
+        compId = data.compilation(true, events);
+        data.compilation(true, events.subList(0, 1));
+    }
+
+    // страница, заголовки подборок, события всех подборок — не зависит от числа событий
+    @Test
+    void pageOfCompilationsRunsAtMostThreeStatements() throws Exception {
+        SqlStatements.assertAtMost(3, () -> mvc.perform(get("/compilations").param("pinned", "true"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void compilationByIdRunsAtMostTwoStatements() throws Exception {
+        SqlStatements.assertAtMost(2, () -> mvc.perform(get("/compilations/{compId}", compId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(3)));
+    }
+}
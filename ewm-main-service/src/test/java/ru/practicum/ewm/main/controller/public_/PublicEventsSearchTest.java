@@ -0,0 +1,68 @@
+package ru.practicum.ewm.main.controller.public_;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.ewm.main.PostgresTest;
+import ru.practicum.ewm.main.TestData;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// полнотекстовый поиск по своей категории, чтобы не видеть события других тестов
+@PostgresTest
+class PublicEventsSearchTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper json;
+
+    private long category;
+    private long rockNight;
+    private long metalcore;
+    private long metal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestData data = new TestData(mvc, json);
+        long user = data.user();
+        category = data.category();
+        rockNight = titled(data, user, "Rock night");
+        metalcore = titled(data, user, "Rock metalcore");
+        metal = titled(data, user, "Rock metal");
+    }
+
+    @Test
+    void lastWordMatchesAsPrefix() throws Exception {
+        search("rock metal")
+                .andExpect(jsonPath("$[*].id").value(containsInAnyOrder((int) metalcore, (int) metal)));
+    }
+
+    @Test
+    void negatedLastWordExcludesOnlyExactWord() throws Exception {
+        search("rock -metal")
+                .andExpect(jsonPath("$[*].id").value(containsInAnyOrder((int) rockNight, (int) metalcore)));
+    }
+
+    private ResultActions search(String text) throws Exception {
+        return mvc.perform(get("/events")
+                        .param("text", text)
+                        .param("categories", String.valueOf(category)))
+                .andExpect(status().isOk());
+    }
+
+    private long titled(TestData data, long user, String title) throws Exception {
+        long eventId = data.publishedEvent(user, category, 0);
+        data.send(patch("/admin/events/{eventId}", eventId), Map.of("title", title));
+        return eventId;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.ewm.main.sql;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Сколько SQL-операторов выполнил вызов в текущем потоке.
+ * MockMvc обрабатывает запрос в потоке теста, поэтому так проверяется эндпоинт целиком:
+ * <pre>
+ * SqlStatements.assertAtMost(3, () -&gt; mockMvc.perform(get("/compilations")));
+ * </pre>
+ * Нужен контекст с включённой sql.instrumentation (по умолчанию так и есть).
+ */
+public final class SqlStatements {
+
+    @FunctionalInterface
+    public interface Call {
+        void run() throws Exception;
+    }
+
+    /** Итог замера: число операторов, время JDBC и все различные операторы, частые первыми. */
+    public record Count(int statements, long jdbcNanos, List<String> executed) {
+
+        public boolean anyMatches(String regex) {
+            Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            return executed.stream().anyMatch(sql -> p.matcher(sql).find());
+        }
+    }
+
+    private SqlStatements() {
+    }
+
+    public static Count count(Call call) throws Exception {
+        try (SqlScope scope = SqlScope.open("test", 0)) {
+            call.run();
+            return new Count(scope.statements(), scope.jdbcNanos(), scope.mostRepeated(Integer.MAX_VALUE));
+        }
+    }
+
+    public static Count assertExactly(int expected, Call call) throws Exception {
+        Count c = count(call);
+        if (c.statements() != expected) {
+            throw new AssertionError("Expected " + expected + " SQL statements but was " + c.statements()
+                    + ": " + c.executed());
+        }
+        return c;
+    }
+
+    public static Count assertAtMost(int max, Call call) throws Exception {
+        Count c = count(call);
+        if (c.statements() > max) {
+            throw new AssertionError("Expected at most " + max + " SQL statements but was " + c.statements()
+                    + ": " + c.executed());
+        }
+        return c;
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.ewm.main.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.main.stats.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventViewsSyncTest {
+
+    // лента статистики: хиты видны в порядке коммита, а не в порядке id
+    private final List<EndpointHitDto> committed = new ArrayList<>();
+    private final StatsClient statsClient = mock(StatsClient.class);
+    private final RecordingProjection projection = new RecordingProjection();
+
+    @BeforeEach
+    void feed() {
+        when(statsClient.hitsAfter(anyLong(), anyInt())).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            int size = inv.getArgument(1);
+            return committed.stream()
+                    .filter(h -> h.getId() > after)
+                    .sorted(Comparator.comparing(EndpointHitDto::getId))
+                    .limit(size)
+                    .toList();
+        });
+    }
+
+    @Test
+    void hitCommittedAfterLargerIdIsAppliedOnNextRun() {
+        EventViewsSync sync = new EventViewsSync(statsClient, projection, 2, 60_000);
+        commit(1, "10.0.0.1");
+        commit(3, "10.0.0.3");
+        sync.sync();
+
+        // id 2 выдан раньше id 3, но закоммичен после первого запуска
+        commit(2, "10.0.0.2");
+        sync.sync();
+
+        assertThat(projection.appliedIds).contains(2L);
+        assertThat(projection.watermark()).isZero();
+    }
+
+    @Test
+    void hitsInsideLagAreAppliedOnce() {
+        EventViewsSync sync = new EventViewsSync(statsClient, projection, 2, 60_000);
+        commit(1, "10.0.0.1");
+        commit(3, "10.0.0.3");
+        sync.sync();
+        commit(2, "10.0.0.2");
+        sync.sync();
+        commit(4, "10.0.0.4");
+        sync.sync();
+
+        assertThat(projection.appliedIds).containsExactly(1L, 3L, 2L, 4L);
+    }
+
+    @Test
+    void nextRunReadsFromFirstGapNotWatermark() {
+        EventViewsSync sync = new EventViewsSync(statsClient, projection, 10, 60_000);
+        commit(1, "10.0.0.1");
+        commit(2, "10.0.0.2");
+        commit(4, "10.0.0.4");
+        sync.sync();
+        sync.sync();
+
+        // 1 и 2 прочитаны подряд, 3 ещё может закоммититься
+        verify(statsClient, times(1)).hitsAfter(eq(0L), anyInt());
+        verify(statsClient, times(1)).hitsAfter(eq(2L), anyInt());
+    }
+
+    @Test
+    void watermarkAdvancesToHeadOlderThanLag() {
+        EventViewsSync sync = new EventViewsSync(statsClient, projection, 2, 0);
+        commit(1, "10.0.0.1");
+        commit(2, "10.0.0.2");
+        commit(3, "10.0.0.3");
+        sync.sync();
+        assertThat(projection.watermark()).isEqualTo(3L);
+
+        projection.appliedIds.clear();
+        commit(4, "10.0.0.4");
+        sync.sync();
+        assertThat(projection.appliedIds).containsExactly(4L);
+        assertThat(projection.watermark()).isEqualTo(4L);
+    }
+
+    private void commit(long id, String ip) {
+        committed.add(EndpointHitDto.builder()
+                .id(id)
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip(ip)
+                .build());
+    }
+
+    // проекция без БД: запоминает применённые хиты и водяной знак
+    private static class RecordingProjection extends EventViewsProjection {
+        private final List<Long> appliedIds = new ArrayList<>();
+        private long watermark;
+
+        RecordingProjection() {
+            super(null, null);
+        }
+
+        @Override
+        public long watermark() {
+            return watermark;
+        }
+
+        @Override
+        public long apply(List<EndpointHitDto> hits) {
+            hits.forEach(h -> appliedIds.add(h.getId()));
+            return hits.stream().mapToLong(EndpointHitDto::getId).max().orElse(0L);
+        }
+
+        @Override
+        public void advance(long lastHitId) {
+            watermark = Math.max(watermark, lastHitId);
+        }
+    }
+}
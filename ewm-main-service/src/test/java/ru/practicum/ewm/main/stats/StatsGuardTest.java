@@ -0,0 +1,57 @@
+package ru.practicum.ewm.main.stats;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.stats.client.StatsHttp;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatsGuardTest {
+
+    private final StatsHttp statsHttp = new StatsHttp(StatsHttp.Settings.defaults());
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // окно 10, минимум 5 замеров, таймаут p99 × 3 в пределах [100, 3000] мс
+    private final StatsGuard guard = new StatsGuard(statsHttp, new StatsMetrics(registry), circuitBreakers,
+            BulkheadRegistry.ofDefaults(), registry, 0.99, 3, 100, 3000, 10, 5);
+
+    @AfterEach
+    void close() {
+        statsHttp.close();
+    }
+
+    @Test
+    void timeoutGrowsWhenCallsTimeOut() {
+        for (int i = 0; i < 10; i++) {
+            guard.call("test", () -> "ok");
+        }
+        assertThat(guard.timeout()).isEqualTo(Duration.ofMillis(100));
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> guard.call("test", () -> {
+                throw new ResourceAccessException("Read timed out");
+            })).isInstanceOf(ResourceAccessException.class);
+        }
+        assertThat(guard.timeout()).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    void halfOpenProbesWaitFullTimeout() {
+        for (int i = 0; i < 10; i++) {
+            guard.call("test", () -> "ok");
+        }
+        CircuitBreaker breaker = circuitBreakers.circuitBreaker(StatsGuard.NAME);
+        breaker.transitionToOpenState();
+        breaker.transitionToHalfOpenState();
+
+        assertThat(guard.timeout()).isEqualTo(Duration.ofMillis(3000));
+    }
+}
@@ -15,8 +15,10 @@ public class StatsClient {
     private final RestTemplate restTemplate;
     private final String baseUrl;
 
-    public StatsClient(String baseUrl) {
-        this.restTemplate = new RestTemplate();
+    //RestTemplate из общего StatsHttp: клиенты одного приложения делят пул соединений,
+    //а закрывает его владелец StatsHttp (в Spring — бин с destroyMethod close)
+    public StatsClient(String baseUrl, RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
     }
 
@@ -25,12 +27,24 @@ public class StatsClient {
         restTemplate.postForLocation(baseUrl + "/hit", dto);
     }
 
+    //Хит и обновлённое число уникальных просмотров его uri за всю историю одним запросом
+    public long hitAndCount(EndpointHitDto dto) {
+        ViewStatsDto counted = restTemplate.postForObject(baseUrl + "/hit/count?unique=true", dto, ViewStatsDto.class);
+        return Objects.requireNonNull(counted).getHits();
+    }
+
     //Получение статистики
     public List<ViewStatsDto> stats(String start, String end, List<String> uris, boolean unique) {
+        return stats(start, end, uris, unique, false);
+    }
+
+    //approximate: уникальные ip по HyperLogLog-скетчам вместо точного подсчёта (только для unique)
+    public List<ViewStatsDto> stats(String start, String end, List<String> uris, boolean unique, boolean approximate) {
         UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl + "/stats")
                 .queryParam("start", encode(start))
                 .queryParam("end", encode(end))
-                .queryParam("unique", unique);
+                .queryParam("unique", unique)
+                .queryParam("approximate", approximate);
 
         if (uris != null && !uris.isEmpty()) {
             for (String uri : uris) {
@@ -44,6 +58,16 @@ public class StatsClient {
         return List.of(Objects.requireNonNull(response.getBody()));
     }
 
+    //Лента хитов после водяного знака (id последнего полученного хита)
+    public List<EndpointHitDto> hitsAfter(long after, int size) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/hits")
+                .queryParam("after", after)
+                .queryParam("size", size)
+                .toUriString();
+        ResponseEntity<EndpointHitDto[]> response = restTemplate.getForEntity(url, EndpointHitDto[].class);
+        return List.of(Objects.requireNonNull(response.getBody()));
+    }
+
     private String encode(String value) {
         return URLEncoder.encode(value, StandardCharsets.UTF_8);
     }
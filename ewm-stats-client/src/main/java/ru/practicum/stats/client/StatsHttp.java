@@ -0,0 +1,110 @@
+package ru.practicum.stats.client;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+//Общий HTTP-стек клиентов статистики: пул keep-alive соединений Apache HttpClient 5 с ограниченными таймаутами.
+//Без пула каждый хит платил за установку TCP-соединения, без таймаутов зависший сервер держал потоки бесконечно.
+public class StatsHttp implements AutoCloseable {
+    private static final ThreadLocal<Timeout> RESPONSE_TIMEOUT = new ThreadLocal<>();
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    //connectTimeout — установка соединения, responseTimeout — ожидание ответа (read),
+    //poolTimeout — ожидание свободного соединения из пула, keepAlive — сколько держать простаивающее соединение
+    public record Settings(Duration connectTimeout,
+                           Duration responseTimeout,
+                           Duration poolTimeout,
+                           Duration keepAlive,
+                           int maxTotal,
+                           int maxPerRoute) {
+        public static Settings defaults() {
+            return new Settings(Duration.ofSeconds(1), Duration.ofSeconds(3), Duration.ofMillis(500),
+                    Duration.ofSeconds(30), 50, 50);
+        }
+    }
+
+    public StatsHttp(Settings settings) {
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.maxTotal())
+                .setMaxConnPerRoute(settings.maxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(settings.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(settings.responseTimeout()))
+                        //соединение, простоявшее дольше секунды, проверяется перед выдачей из пула
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                        .build())
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(settings.poolTimeout()))
+                .setResponseTimeout(Timeout.of(settings.responseTimeout()))
+                .setConnectionKeepAlive(TimeValue.of(settings.keepAlive()))
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(settings.keepAlive()))
+                .build();
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setHttpContextFactory((method, uri) -> {
+            Timeout timeout = RESPONSE_TIMEOUT.get();
+            if (timeout == null) {
+                return null;
+            }
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.copy(requestConfig).setResponseTimeout(timeout).build());
+            return context;
+        });
+        this.restTemplate = new RestTemplate(factory);
+    }
+
+    //Запросы restTemplate() внутри call ждут ответа не дольше timeout вместо responseTimeout из Settings
+    public <T> T withResponseTimeout(Duration timeout, Supplier<T> call) {
+        Timeout previous = RESPONSE_TIMEOUT.get();
+        RESPONSE_TIMEOUT.set(Timeout.of(timeout));
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                RESPONSE_TIMEOUT.remove();
+            } else {
+                RESPONSE_TIMEOUT.set(previous);
+            }
+        }
+    }
+
+    public RestTemplate restTemplate() {
+        return restTemplate;
+    }
+
+    //для метрик пула (занятые, свободные, ожидающие соединения)
+    public PoolingHttpClientConnectionManager connectionManager() {
+        return connectionManager;
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+
+/**
+ * Заполнение ip_sketch_minute/hour/day по накопленной истории.
+ * Хеш ip считается в Java, поэтому миграция не SQL. Хиты читаются потоком в порядке (app, uri, ts):
+ * бакеты одного uri идут подряд, и в памяти держится по одному скетчу на уровень.
+ */
+public class V4__Backfill_ip_sketches extends BaseJavaMigration {
+    private static final int BATCH = 1_000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection c = context.getConnection();
+        try (Statement st = c.createStatement()) {
+            st.execute("LOCK TABLE endpoint_hits IN SHARE MODE");
+        }
+        try (Level minute = new Level(c, "ip_sketch_minute", ChronoUnit.MINUTES);
+             Level hour = new Level(c, "ip_sketch_hour", ChronoUnit.HOURS);
+             Level day = new Level(c, "ip_sketch_day", ChronoUnit.DAYS);
+             PreparedStatement ps = c.prepareStatement("SELECT app, uri, ip, ts FROM endpoint_hits ORDER BY app, uri, ts")) {
+            ps.setFetchSize(10_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String app = rs.getString(1);
+                    String uri = rs.getString(2);
+                    String ip = rs.getString(3);
+                    LocalDateTime ts = rs.getObject(4, LocalDateTime.class);
+                    minute.add(app, uri, ip, ts);
+                    hour.add(app, uri, ip, ts);
+                    day.add(app, uri, ip, ts);
+                }
+            }
+        }
+    }
+
+    /** Текущий скетч одного уровня; записывается, когда меняется (app, uri, bucket). */
+    private static final class Level implements AutoCloseable {
+        private final PreparedStatement insert;
+        private final ChronoUnit unit;
+        private String app;
+        private String uri;
+        private LocalDateTime bucket;
+        private HyperLogLog sketch;
+        private int pending;
+
+        Level(Connection c, String table, ChronoUnit unit) throws Exception {
+            this.insert = c.prepareStatement("INSERT INTO " + table + " (bucket, app, uri, sketch) VALUES (?, ?, ?, ?)");
+            this.unit = unit;
+        }
+
+        void add(String app, String uri, String ip, LocalDateTime ts) throws Exception {
+            LocalDateTime b = ts.truncatedTo(unit);
+            if (sketch == null || !b.equals(bucket) || !uri.equals(this.uri) || !app.equals(this.app)) {
+                flush();
+                this.app = app;
+                this.uri = uri;
+                this.bucket = b;
+                this.sketch = new HyperLogLog();
+            }
+            sketch.add(ip);
+        }
+
+        private void flush() throws Exception {
+            if (sketch == null) {
+                return;
+            }
+            insert.setObject(1, bucket);
+            insert.setString(2, app);
+            insert.setString(3, uri);
+            insert.setBytes(4, sketch.toBytes());
+            insert.addBatch();
+            if (++pending >= BATCH) {
+                insert.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            flush();
+            insert.executeBatch();
+            insert.close();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.stats.server.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,6 +18,8 @@ import ru.practicum.stats.server.service.StatsService;
 @RestController
 @RequiredArgsConstructor
 public class StatsController {
+    private static final int MAX_BATCH = 10_000;
+
     private final StatsService service;
 
     @PostMapping("/hit")
@@ -25,11 +28,33 @@ public class StatsController {
         service.saveHit(dto);
     }
 
+    @PostMapping("/hit/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void hits(@RequestBody @Size(max = MAX_BATCH) List<@Valid EndpointHitDto> dtos) {
+        service.saveHits(dtos);
+    }
+
+    // хит и обновлённый счётчик его uri за всю историю одним обращением (по умолчанию уникальный)
+    @PostMapping("/hit/count")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ViewStatsDto hitAndCount(@RequestBody @Valid EndpointHitDto dto,
+                                    @RequestParam(defaultValue = "true") boolean unique,
+                                    @RequestParam(defaultValue = "false") boolean approximate) {
+        return service.saveHitAndCount(dto, unique, approximate);
+    }
+
+    @GetMapping("/hits")
+    public List<EndpointHitDto> hits(@RequestParam(defaultValue = "0") long after,
+                                     @RequestParam(defaultValue = "1000") int size) {
+        return service.getHitsAfter(after, size);
+    }
+
     @GetMapping("/stats")
     public List<ViewStatsDto> stats(@RequestParam String start,
                                     @RequestParam String end,
                                     @RequestParam(required = false) List<String> uris,
-                                    @RequestParam(defaultValue = "false") boolean unique) {
-        return service.getStats(start, end, uris, unique);
+                                    @RequestParam(defaultValue = "false") boolean unique,
+                                    @RequestParam(defaultValue = "false") boolean approximate) {
+        return service.getStats(start, end, uris, unique, approximate);
     }
 }
\ No newline at end of file
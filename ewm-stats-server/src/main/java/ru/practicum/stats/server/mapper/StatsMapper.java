@@ -16,4 +16,8 @@ public final class StatsMapper {
         e.setTimestamp(dto.getTimestamp());
         return e;
     }
+
+    public static EndpointHitDto toDto(EndpointHitEntity e) {
+        return new EndpointHitDto(e.getId(), e.getApp(), e.getUri(), e.getIp(), e.getTimestamp());
+    }
 }
\ No newline at end of file
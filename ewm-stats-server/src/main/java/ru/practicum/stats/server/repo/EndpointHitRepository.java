@@ -2,6 +2,7 @@ package ru.practicum.stats.server.repo;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,27 +11,7 @@ import ru.practicum.stats.server.model.EndpointHitEntity;
 
 public interface EndpointHitRepository extends JpaRepository<EndpointHitEntity, Long> {
 
-    @Query("""
-           SELECT new ru.practicum.stats.dto.ViewStatsDto(h.app, h.uri, COUNT(h.id))
-             FROM EndpointHitEntity h
-            WHERE h.timestamp BETWEEN :start AND :end
-            GROUP BY h.app, h.uri
-            ORDER BY COUNT(h.id) DESC
-           """)
-    List<ViewStatsDto> statsAll(@Param("start") LocalDateTime start,
-                                @Param("end") LocalDateTime end);
-
-    @Query("""
-           SELECT new ru.practicum.stats.dto.ViewStatsDto(h.app, h.uri, COUNT(h.id))
-             FROM EndpointHitEntity h
-            WHERE h.timestamp BETWEEN :start AND :end
-              AND h.uri IN :uris
-            GROUP BY h.app, h.uri
-            ORDER BY COUNT(h.id) DESC
-           """)
-    List<ViewStatsDto> statsAllByUris(@Param("start") LocalDateTime start,
-                                      @Param("end") LocalDateTime end,
-                                      @Param("uris") List<String> uris);
+    List<EndpointHitEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
     @Query("""
            SELECT new ru.practicum.stats.dto.ViewStatsDto(h.app, h.uri, COUNT(DISTINCT h.ip))
@@ -0,0 +1,45 @@
+package ru.practicum.stats.server.repo;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** Месячные секции endpoint_hits (endpoint_hits_YYYY_MM), см. миграцию V5. */
+@Repository
+@Timed("stats.repository")
+@RequiredArgsConstructor
+public class HitPartitionRepository {
+    private static final Pattern NAME = Pattern.compile("endpoint_hits_(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void ensure(YearMonth month) {
+        jdbcTemplate.queryForObject("SELECT ensure_endpoint_hits_partition(?)", String.class, month.atDay(1));
+    }
+
+    /** Месяцы, для которых есть секции (default-секция не входит). */
+    public List<YearMonth> months() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                          FROM pg_inherits i
+                          JOIN pg_class c ON c.oid = i.inhrelid
+                         WHERE i.inhparent = 'endpoint_hits'::regclass
+                        """, String.class).stream()
+                .map(NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))))
+                .sorted()
+                .toList();
+    }
+
+    public void drop(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS endpoint_hits_" + month.format(SUFFIX));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.stats.server.repo;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHitEntity;
+import ru.practicum.stats.server.service.RollupPlan;
+
+/**
+ * Таблицы hit_rollup_minute/hour/day: число хитов по (bucket, app, uri).
+ * Пополняются в той же транзакции, что и вставка сырых хитов, поэтому всегда точны.
+ * Уникальные просмотры (COUNT DISTINCT ip) так не складываются — для них IpSketchRepository.
+ */
+@Repository
+@Timed("stats.repository")
+@RequiredArgsConstructor
+public class HitRollupRepository {
+    private static final String UPSERT_SQL = """
+            INSERT INTO %1$s (bucket, app, uri, hits) VALUES (?, ?, ?, ?)
+            ON CONFLICT (bucket, app, uri) DO UPDATE SET hits = %1$s.hits + EXCLUDED.hits
+            """;
+
+    // один порядок блокировок строк для всех параллельных пачек — без взаимоблокировок
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::bucket)
+            .thenComparing(Key::app)
+            .thenComparing(Key::uri);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private record Key(LocalDateTime bucket, String app, String uri) {
+    }
+
+    public void add(List<EndpointHitEntity> hits) {
+        upsert("hit_rollup_minute", hits, ChronoUnit.MINUTES);
+        upsert("hit_rollup_hour", hits, ChronoUnit.HOURS);
+        upsert("hit_rollup_day", hits, ChronoUnit.DAYS);
+    }
+
+    /** Неуникальные хиты по app/uri за весь план, по убыванию. */
+    public List<ViewStatsDto> countHits(RollupPlan plan, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String uriFilter = SqlRanges.uriFilter(uris, params);
+
+        List<String> parts = new ArrayList<>();
+        if (!plan.raw().isEmpty()) {
+            parts.add("SELECT app, uri, COUNT(*) AS hits FROM endpoint_hits WHERE "
+                    + SqlRanges.of("ts", "r", plan.raw(), params) + uriFilter + " GROUP BY app, uri");
+        }
+        part(parts, "hit_rollup_minute", "m", plan.minutes(), uriFilter, params);
+        part(parts, "hit_rollup_hour", "h", plan.hours(), uriFilter, params);
+        part(parts, "hit_rollup_day", "d", plan.days(), uriFilter, params);
+        if (parts.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = "SELECT app, uri, SUM(hits) AS hits FROM (" + String.join(" UNION ALL ", parts) + ") t"
+                + " GROUP BY app, uri ORDER BY SUM(hits) DESC";
+        return namedJdbcTemplate.query(sql, params,
+                (rs, i) -> new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    private void upsert(String table, List<EndpointHitEntity> hits, ChronoUnit unit) {
+        Map<Key, Long> counts = new TreeMap<>(KEY_ORDER);
+        for (EndpointHitEntity h : hits) {
+            counts.merge(new Key(h.getTimestamp().truncatedTo(unit), h.getApp(), h.getUri()), 1L, Long::sum);
+        }
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((k, n) -> rows.add(new Object[]{k.bucket(), k.app(), k.uri(), n}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL.formatted(table), rows);
+    }
+
+    private static void part(List<String> parts, String table, String prefix, List<RollupPlan.Range> ranges,
+                             String uriFilter, MapSqlParameterSource params) {
+        if (!ranges.isEmpty()) {
+            parts.add("SELECT app, uri, hits FROM " + table + " WHERE "
+                    + SqlRanges.of("bucket", prefix, ranges, params) + uriFilter);
+        }
+    }
+}
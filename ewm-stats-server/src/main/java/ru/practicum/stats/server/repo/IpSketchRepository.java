@@ -0,0 +1,140 @@
+package ru.practicum.stats.server.repo;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.service.RollupPlan;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+
+/**
+ * Таблицы ip_sketch_minute/hour/day: HyperLogLog-скетч ip по (bucket, app, uri).
+ * Пополняются минутными скетчами из IpSketchBuffer, часовые и дневные собираются из них при записи;
+ * окно /stats собирается объединением скетчей бакетов и ip из сырых хитов на неровных краях.
+ */
+@Repository
+@Timed("stats.repository")
+@RequiredArgsConstructor
+public class IpSketchRepository {
+    // пустой разреженный скетч; DO UPDATE вместо DO NOTHING, чтобы строка заблокировалась в порядке ключей
+    private static final String LOCK_SQL = """
+            INSERT INTO %1$s (bucket, app, uri, sketch) VALUES (?, ?, ?, '\\x000000'::bytea)
+            ON CONFLICT (bucket, app, uri) DO UPDATE SET sketch = %1$s.sketch
+            """;
+    private static final String UPDATE_SQL = "UPDATE %s SET sketch = ? WHERE bucket = ? AND app = ? AND uri = ?";
+    private static final int SELECT_CHUNK = 2_000;
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::bucket)
+            .thenComparing(Key::app)
+            .thenComparing(Key::uri);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public record Key(LocalDateTime bucket, String app, String uri) {
+    }
+
+    /** Объединяет минутные скетчи с хранимыми на всех трёх уровнях; вызывать в транзакции. */
+    public void add(Map<Key, HyperLogLog> minutes) {
+        merge("ip_sketch_minute", minutes);
+        merge("ip_sketch_hour", coarsen(minutes, ChronoUnit.HOURS));
+        merge("ip_sketch_day", coarsen(minutes, ChronoUnit.DAYS));
+    }
+
+    /** Оценка уникальных ip по app/uri за весь план, по убыванию. */
+    public List<ViewStatsDto> estimateUnique(RollupPlan plan, List<String> uris) {
+        return estimates(sketches(plan, uris));
+    }
+
+    public static List<ViewStatsDto> estimates(Map<List<String>, HyperLogLog> sketches) {
+        return sketches.entrySet().stream()
+                .map(e -> new ViewStatsDto(e.getKey().get(0), e.getKey().get(1), e.getValue().estimate()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    /** Скетчи ip по [app, uri] за весь план: сырые хиты на краях и хранимые бакеты. */
+    public Map<List<String>, HyperLogLog> sketches(RollupPlan plan, List<String> uris) {
+        Map<List<String>, HyperLogLog> sketches = new HashMap<>();
+
+        if (!plan.raw().isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            String sql = "SELECT DISTINCT app, uri, ip FROM endpoint_hits WHERE "
+                    + SqlRanges.of("ts", "r", plan.raw(), params) + SqlRanges.uriFilter(uris, params);
+            namedJdbcTemplate.query(sql, params, rs -> {
+                sketches.computeIfAbsent(List.of(rs.getString("app"), rs.getString("uri")), k -> new HyperLogLog())
+                        .add(rs.getString("ip"));
+            });
+        }
+        read(sketches, "ip_sketch_minute", plan.minutes(), uris);
+        read(sketches, "ip_sketch_hour", plan.hours(), uris);
+        read(sketches, "ip_sketch_day", plan.days(), uris);
+        return sketches;
+    }
+
+    private static Map<Key, HyperLogLog> coarsen(Map<Key, HyperLogLog> minutes, ChronoUnit unit) {
+        Map<Key, HyperLogLog> coarse = new HashMap<>();
+        minutes.forEach((k, s) -> coarse.computeIfAbsent(new Key(k.bucket().truncatedTo(unit), k.app(), k.uri()),
+                x -> new HyperLogLog()).merge(s));
+        return coarse;
+    }
+
+    private void merge(String table, Map<Key, HyperLogLog> sketches) {
+        // копии: исходные скетчи не меняются, при ошибке их можно записать повторно
+        Map<Key, HyperLogLog> fresh = new TreeMap<>(KEY_ORDER);
+        sketches.forEach((k, s) -> fresh.computeIfAbsent(k, x -> new HyperLogLog()).merge(s));
+        List<Key> keys = new ArrayList<>(fresh.keySet());
+
+        // 1) строки существуют и заблокированы нами — параллельная пачка не потеряет свои ip
+        jdbcTemplate.batchUpdate(LOCK_SQL.formatted(table),
+                keys.stream().map(k -> new Object[]{k.bucket(), k.app(), k.uri()}).toList());
+
+        // 2) объединяем с тем, что уже лежит в БД
+        for (int from = 0; from < keys.size(); from += SELECT_CHUNK) {
+            List<Key> chunk = keys.subList(from, Math.min(from + SELECT_CHUNK, keys.size()));
+            StringBuilder sql = new StringBuilder("SELECT bucket, app, uri, sketch FROM " + table
+                    + " WHERE (bucket, app, uri) IN (");
+            List<Object> args = new ArrayList<>(chunk.size() * 3);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+                args.add(chunk.get(i).bucket());
+                args.add(chunk.get(i).app());
+                args.add(chunk.get(i).uri());
+            }
+            jdbcTemplate.query(sql.append(")").toString(), rs -> {
+                Key k = new Key(rs.getObject("bucket", LocalDateTime.class), rs.getString("app"), rs.getString("uri"));
+                fresh.get(k).merge(rs.getBytes("sketch"));
+            }, args.toArray());
+        }
+
+        // 3) записываем объединённые скетчи
+        jdbcTemplate.batchUpdate(UPDATE_SQL.formatted(table), keys.stream()
+                .map(k -> new Object[]{fresh.get(k).toBytes(), k.bucket(), k.app(), k.uri()})
+                .toList());
+    }
+
+    private void read(Map<List<String>, HyperLogLog> sketches, String table, List<RollupPlan.Range> ranges,
+                      List<String> uris) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "SELECT app, uri, sketch FROM " + table + " WHERE "
+                + SqlRanges.of("bucket", "b", ranges, params) + SqlRanges.uriFilter(uris, params);
+        namedJdbcTemplate.query(sql, params, rs -> {
+            sketches.computeIfAbsent(List.of(rs.getString("app"), rs.getString("uri")), k -> new HyperLogLog())
+                    .merge(rs.getBytes("sketch"));
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.stats.server.repo;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.practicum.stats.server.service.RollupPlan;
+
+/** Условия по кускам RollupPlan для запросов к сырым хитам и агрегатам. */
+final class SqlRanges {
+    private SqlRanges() {
+    }
+
+    /** "(col >= :pFrom0 AND col < :pTo0) OR ..." с регистрацией параметров. */
+    static String of(String column, String prefix, List<RollupPlan.Range> ranges, MapSqlParameterSource params) {
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            String from = prefix + "From" + i;
+            String to = prefix + "To" + i;
+            params.addValue(from, ranges.get(i).from());
+            params.addValue(to, ranges.get(i).to());
+            conditions.add("(" + column + " >= :" + from + " AND " + column + " < :" + to + ")");
+        }
+        return "(" + String.join(" OR ", conditions) + ")";
+    }
+
+    /** " AND uri IN (:uris)" или пустая строка, если фильтра нет. */
+    static String uriFilter(List<String> uris, MapSqlParameterSource params) {
+        if (uris == null || uris.isEmpty()) {
+            return "";
+        }
+        params.addValue("uris", uris);
+        return " AND uri IN (:uris)";
+    }
+}
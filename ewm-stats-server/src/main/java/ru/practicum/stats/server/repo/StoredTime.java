@@ -0,0 +1,27 @@
+package ru.practicum.stats.server.repo;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Перевод времени хита в то значение, которое лежит в колонке ts.
+ * Hibernate с hibernate.jdbc.time_zone сдвигает LocalDateTime из зоны JVM в эту зону;
+ * JDBC-запросы мимо Hibernate обязаны делать то же самое, иначе бакеты и границы разъедутся.
+ */
+@Component
+public class StoredTime {
+    private final ZoneId jdbcZone;
+
+    public StoredTime(@Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcZone) {
+        this.jdbcZone = jdbcZone.isBlank() ? null : ZoneId.of(jdbcZone);
+    }
+
+    public LocalDateTime toStored(LocalDateTime ldt) {
+        if (jdbcZone == null) {
+            return ldt;
+        }
+        return ldt.atZone(ZoneId.systemDefault()).withZoneSameInstant(jdbcZone).toLocalDateTime();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.stats.server.repo;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.server.model.EndpointHitEntity;
+
+/**
+ * Таблицы uri_visitors (первый хит каждого ip по app/uri) и uri_visitor_counts (число таких ip).
+ * Пополняются в транзакции записи хитов; счётчик растёт только на новые ip, повторный ip строк не трогает.
+ * Точное число уникальных ip за всю историю — одна строка счётчика, а не COUNT(DISTINCT) по сырым хитам.
+ */
+@Repository
+@Timed("stats.repository")
+@RequiredArgsConstructor
+public class UriVisitorRepository {
+    // одной командой: вставленные ip прибавляются к счётчику своего uri, повторы отсекает ON CONFLICT
+    private static final String ADD_SQL = """
+            WITH fresh AS (
+                INSERT INTO uri_visitors (app, uri, ip, first_seen)
+                SELECT app, uri, ip, first_seen
+                  FROM unnest(CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]),
+                              CAST(? AS TIMESTAMP[])) AS v(app, uri, ip, first_seen)
+                ON CONFLICT (app, uri, ip) DO NOTHING
+                RETURNING app, uri
+            )
+            INSERT INTO uri_visitor_counts (app, uri, visitors)
+            SELECT app, uri, COUNT(*) FROM fresh GROUP BY app, uri ORDER BY app, uri
+            ON CONFLICT (app, uri) DO UPDATE SET visitors = uri_visitor_counts.visitors + EXCLUDED.visitors
+            """;
+
+    // один порядок вставки для параллельных пачек — без взаимоблокировок на одинаковых ключах
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::app)
+            .thenComparing(Key::uri)
+            .thenComparing(Key::ip);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Key(String app, String uri, String ip) {
+    }
+
+    public void add(List<EndpointHitEntity> hits) {
+        Map<Key, LocalDateTime> first = new TreeMap<>(KEY_ORDER);
+        for (EndpointHitEntity h : hits) {
+            first.merge(new Key(h.getApp(), h.getUri(), h.getIp()), h.getTimestamp(),
+                    (a, b) -> a.isBefore(b) ? a : b);
+        }
+        int n = first.size();
+        String[] apps = new String[n];
+        String[] uris = new String[n];
+        String[] ips = new String[n];
+        String[] times = new String[n];
+        int i = 0;
+        for (Map.Entry<Key, LocalDateTime> e : first.entrySet()) {
+            apps[i] = e.getKey().app();
+            uris[i] = e.getKey().uri();
+            ips[i] = e.getKey().ip();
+            times[i++] = e.getValue().toString();
+        }
+        jdbcTemplate.update(ADD_SQL, apps, uris, ips, times);
+    }
+
+    public long countUnique(String app, String uri) {
+        List<Long> n = jdbcTemplate.queryForList("SELECT visitors FROM uri_visitor_counts WHERE app = ? AND uri = ?",
+                Long.class, app, uri);
+        return n.isEmpty() ? 0 : n.get(0);
+    }
+}
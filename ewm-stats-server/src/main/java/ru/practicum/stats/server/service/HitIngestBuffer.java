@@ -0,0 +1,256 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHitEntity;
+
+/**
+ * Приём хитов. В режиме SYNC пачка пишется в БД сразу (HitWriter).
+ * В режиме BUFFERED приём не обращается к БД: хит увеличивает счётчик LongAdder по (app, uri, секунда)
+ * и кладётся в очередь, а раз в flush-interval-ms накопленное пишется одной транзакцией.
+ * Неуникальный /stats складывает записанное в БД с ещё не записанными счётчиками.
+ * Цена режима: при падении процесса теряется не больше flush-interval-ms хитов,
+ * а unique=true и лента /hits видят хиты только после записи.
+ * Метрики: stats.ingest.hits{mode}, stats.ingest.pending, stats.ingest.flush{outcome},
+ * stats.ingest.overflow (запись силами принимающего запроса) и stats.ingest.requeued.
+ */
+@Component
+@Slf4j
+public class HitIngestBuffer {
+    public enum Mode { SYNC, BUFFERED }
+
+    private final HitWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int maxPending;
+    private final MeterRegistry registry;
+    private final Counter accepted;
+    private final Counter overflow;
+    private final Counter requeued;
+
+    // приём пишет в current под read-блокировкой, подмена current — под write
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // чтение /stats и фиксация записи не пересекаются: хит виден либо в буфере, либо в БД, но не дважды
+    private final ReentrantReadWriteLock visibleLock = new ReentrantReadWriteLock();
+    // не synchronized: запись идёт в БД, и виртуальный поток под монитором занял бы поток-носитель
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile Pending current = new Pending();
+    private volatile Pending flushing;
+
+    public HitIngestBuffer(HitWriter writer,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${stats.ingest.mode:SYNC}") Mode mode,
+                           @Value("${stats.ingest.max-pending:100000}") int maxPending,
+                           MeterRegistry registry) {
+        this.writer = writer;
+        this.transactionTemplate = transactionTemplate;
+        this.mode = mode;
+        this.maxPending = maxPending;
+        this.registry = registry;
+        this.accepted = Counter.builder("stats.ingest.hits")
+                .description("Hits accepted for writing")
+                .tag("mode", mode.name())
+                .register(registry);
+        this.overflow = Counter.builder("stats.ingest.overflow")
+                .description("Flushes done by an ingesting request because the buffer was full")
+                .register(registry);
+        this.requeued = Counter.builder("stats.ingest.requeued")
+                .description("Hits returned to the buffer after a failed flush")
+                .register(registry);
+        Gauge.builder("stats.ingest.pending", this, b -> b.current.size.get())
+                .description("Buffered hits not yet written")
+                .register(registry);
+    }
+
+    private record Key(String app, String uri, LocalDateTime second) {
+    }
+
+    private static final class Pending {
+        final Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+        final ConcurrentLinkedQueue<EndpointHitEntity> hits = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    // stats.ingest.hits растёт только после записи или постановки в очередь: отклонённые хиты не считаются
+    public void accept(List<EndpointHitEntity> hits) {
+        if (mode == Mode.SYNC) {
+            writer.write(hits);
+            accepted.increment(hits.size());
+            return;
+        }
+        // буфер полон — пишет сам вызывающий; если БД недоступна, хиты отклоняются, а не копятся без предела
+        if (current.size.get() >= maxPending) {
+            overflow.increment();
+            flush();
+        }
+        swapLock.readLock().lock();
+        try {
+            Pending p = current;
+            for (EndpointHitEntity h : hits) {
+                // время хита приходит с точностью до секунды, поэтому секундный бакет не размывает границы окна
+                p.counts.computeIfAbsent(new Key(h.getApp(), h.getUri(), h.getTimestamp().truncatedTo(ChronoUnit.SECONDS)),
+                        k -> new LongAdder()).increment();
+            }
+            p.hits.addAll(hits);
+            p.size.addAndGet(hits.size());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        accepted.increment(hits.size());
+    }
+
+    /**
+     * Неуникальные хиты из БД плюс ещё не записанные за [from, to).
+     * Запрос в БД выполняется под блокировкой, исключающей фиксацию очередной записи.
+     */
+    public List<ViewStatsDto> withPending(Supplier<List<ViewStatsDto>> persisted, LocalDateTime from,
+                                          LocalDateTime to, List<String> uris) {
+        if (mode == Mode.SYNC) {
+            return persisted.get();
+        }
+        visibleLock.readLock().lock();
+        try {
+            List<ViewStatsDto> stored = persisted.get();
+            Pending cur;
+            Pending fl;
+            swapLock.readLock().lock();
+            try {
+                cur = current;
+                fl = flushing;
+            } finally {
+                swapLock.readLock().unlock();
+            }
+            Set<String> uriSet = uris == null || uris.isEmpty() ? null : new HashSet<>(uris);
+            Map<List<String>, Long> extra = new HashMap<>();
+            collect(cur, from, to, uriSet, extra);
+            if (fl != null) {
+                collect(fl, from, to, uriSet, extra);
+            }
+            if (extra.isEmpty()) {
+                return stored;
+            }
+            Map<List<String>, Long> merged = new HashMap<>(extra);
+            stored.forEach(v -> merged.merge(List.of(v.getApp(), v.getUri()), v.getHits(), Long::sum));
+            return merged.entrySet().stream()
+                    .map(e -> new ViewStatsDto(e.getKey().get(0), e.getKey().get(1), e.getValue()))
+                    .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                    .toList();
+        } finally {
+            visibleLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.ingest.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            // хиты возвращены в буфер, повторим на следующем запуске
+            log.warn("Buffered hits flush failed, {} pending: {}", current.size.get(), ex.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Buffered hits lost on shutdown: {}", current.size.get(), ex);
+        }
+    }
+
+    /** Записывает накопленное; при ошибке возвращает хиты в буфер и бросает исключение дальше. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Pending batch;
+            swapLock.writeLock().lock();
+            try {
+                batch = current;
+                if (batch.size.get() == 0) {
+                    return;
+                }
+                current = new Pending();
+                flushing = batch;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            List<EndpointHitEntity> hits = new ArrayList<>(batch.hits);
+            Timer.Sample sample = Timer.start(registry);
+            String outcome = "error";
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    writer.write(hits);
+                    // держим до фиксации: после неё хиты читаются из БД, а flushing сбрасывается
+                    visibleLock.writeLock().lock();
+                });
+                outcome = "success";
+            } catch (RuntimeException ex) {
+                if (!visibleLock.isWriteLockedByCurrentThread()) {
+                    visibleLock.writeLock().lock();
+                }
+                requeue(batch);
+                requeued.increment(hits.size());
+                throw ex;
+            } finally {
+                sample.stop(registry.timer("stats.ingest.flush", "outcome", outcome));
+                flushing = null;
+                if (visibleLock.isWriteLockedByCurrentThread()) {
+                    visibleLock.writeLock().unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void requeue(Pending batch) {
+        swapLock.readLock().lock();
+        try {
+            Pending p = current;
+            batch.counts.forEach((k, n) -> p.counts.computeIfAbsent(k, x -> new LongAdder()).add(n.sum()));
+            p.hits.addAll(batch.hits);
+            p.size.addAndGet(batch.size.get());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Pending p, LocalDateTime from, LocalDateTime to, Set<String> uris,
+                                Map<List<String>, Long> out) {
+        p.counts.forEach((k, n) -> {
+            if (!k.second().isBefore(from) && k.second().isBefore(to) && (uris == null || uris.contains(k.uri()))) {
+                long sum = n.sum();
+                if (sum > 0) {
+                    out.merge(List.of(k.app(), k.uri()), sum, Long::sum);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.stats.server.service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.server.repo.HitPartitionRepository;
+
+/**
+ * Обслуживание секций endpoint_hits: заранее создаёт секции на months-ahead месяцев вперёд
+ * и удаляет целиком секции старше retention-months (0 — хранить всё).
+ * Агрегаты и скетчи не удаляются, поэтому неуникальные и приближённые unique-счётчики
+ * переживают срок хранения; точный unique=true видит только оставшиеся сырые хиты.
+ */
+@Component
+@Slf4j
+public class HitPartitionMaintenance {
+    private final HitPartitionRepository partitions;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Clock clock = Clock.systemUTC();
+
+    public HitPartitionMaintenance(HitPartitionRepository partitions,
+                                   @Value("${stats.partitions.months-ahead:3}") int monthsAhead,
+                                   @Value("${stats.retention.months:0}") int retentionMonths) {
+        this.partitions = partitions;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${stats.partitions.check-interval-ms:3600000}")
+    public void maintain() {
+        try {
+            YearMonth current = YearMonth.now(clock);
+            for (int i = 0; i <= monthsAhead; i++) {
+                partitions.ensure(current.plusMonths(i));
+            }
+            if (retentionMonths > 0) {
+                YearMonth oldestKept = current.minusMonths(retentionMonths);
+                for (YearMonth month : partitions.months()) {
+                    if (month.isBefore(oldestKept)) {
+                        partitions.drop(month);
+                        log.info("Dropped endpoint_hits partition {} (retention {} months)", month, retentionMonths);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            // повторим на следующем запуске; текущий месяц создан миграцией заранее
+            log.warn("Endpoint hits partition maintenance failed: {}", ex.toString());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.stats.server.model.EndpointHitEntity;
+import ru.practicum.stats.server.repo.EndpointHitBatchRepository;
+import ru.practicum.stats.server.repo.HitRollupRepository;
+import ru.practicum.stats.server.repo.UriVisitorRepository;
+
+/**
+ * Запись пачки хитов одной транзакцией: сырые строки JDBC-батчем,
+ * приращение минутных, часовых и дневных агрегатов, первые хиты ip по uri (uri_visitors);
+ * ip добавляются в скетчи в памяти (IpSketchBuffer).
+ * Время хитов ожидается уже приведённым через StoredTime.
+ * Метрики: stats.ingest.write (время записи) и stats.ingest.batch.size (хитов в пачке).
+ */
+@Component
+@RequiredArgsConstructor
+public class HitWriter {
+    private final EndpointHitBatchRepository batchRepository;
+    private final HitRollupRepository rollupRepository;
+    private final IpSketchBuffer sketchBuffer;
+    private final UriVisitorRepository visitorRepository;
+    private final MeterRegistry registry;
+
+    @Transactional
+    @Timed("stats.ingest.write")
+    public void write(List<EndpointHitEntity> hits) {
+        DistributionSummary.builder("stats.ingest.batch.size")
+                .description("Hits per write transaction")
+                .register(registry)
+                .record(hits.size());
+        batchRepository.insertAll(hits);
+        rollupRepository.add(hits);
+        visitorRepository.add(hits);
+        sketchBuffer.add(hits);
+    }
+}
@@ -0,0 +1,200 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHitEntity;
+import ru.practicum.stats.server.repo.IpSketchRepository;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+
+/**
+ * Минутные скетчи ip по (bucket, app, uri), накопленные в памяти.
+ * Запись хитов только добавляет ip в скетч; раз в stats.sketches.flush-interval-ms накопленное
+ * объединяется с ip_sketch_minute/hour/day одной транзакцией, по одной строке на ключ за запись,
+ * а не за каждую пачку хитов. Оценка unique=approximate объединяет хранимые скетчи с ещё не записанными.
+ * Цена: при падении процесса скетчи теряют не больше flush-interval-ms ip (сырые хиты и точный
+ * unique=true не затрагиваются). Хит откатившейся транзакции остаётся в скетче; повтор той же
+ * пачки клиентом его не удваивает — объединение скетчей идемпотентно.
+ * Метрики: stats.sketches.pending (ключей в памяти) и stats.sketches.flush{outcome}.
+ */
+@Component
+@Slf4j
+public class IpSketchBuffer {
+    private final IpSketchRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry registry;
+
+    // добавление идёт в current под read-блокировкой, подмена current — под write
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // плановый сброс и сброс при остановке по очереди; держится, пока upsert в ip_sketch_* ждёт БД
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile Map<IpSketchRepository.Key, HyperLogLog> current = new ConcurrentHashMap<>();
+    private volatile Map<IpSketchRepository.Key, HyperLogLog> flushing;
+
+    public IpSketchBuffer(IpSketchRepository repository, TransactionTemplate transactionTemplate,
+                          MeterRegistry registry) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.registry = registry;
+        Gauge.builder("stats.sketches.pending", this, b -> b.current.size())
+                .description("Minute ip sketches not yet written")
+                .register(registry);
+    }
+
+    public void add(List<EndpointHitEntity> hits) {
+        swapLock.readLock().lock();
+        try {
+            Map<IpSketchRepository.Key, HyperLogLog> p = current;
+            for (EndpointHitEntity h : hits) {
+                // compute держит блокировку ключа: HyperLogLog не потокобезопасен
+                p.compute(new IpSketchRepository.Key(h.getTimestamp().truncatedTo(ChronoUnit.MINUTES),
+                        h.getApp(), h.getUri()), (k, s) -> {
+                    HyperLogLog sketch = s == null ? new HyperLogLog() : s;
+                    sketch.add(h.getIp());
+                    return sketch;
+                });
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Оценка уникальных ip за план: хранимые скетчи плюс ещё не записанные.
+     * Память читается до БД: скетч, записанный между чтениями, учтётся дважды, что для максимума безвредно.
+     */
+    public List<ViewStatsDto> estimateUnique(RollupPlan plan, List<String> uris) {
+        Map<List<String>, HyperLogLog> pending = new HashMap<>();
+        Map<IpSketchRepository.Key, HyperLogLog> cur;
+        Map<IpSketchRepository.Key, HyperLogLog> fl;
+        swapLock.readLock().lock();
+        try {
+            cur = current;
+            fl = flushing;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        List<RollupPlan.Range> ranges = Stream.of(plan.minutes(), plan.hours(), plan.days())
+                .flatMap(List::stream)
+                .toList();
+        if (!ranges.isEmpty()) {
+            Set<String> uriSet = uris == null || uris.isEmpty() ? null : new HashSet<>(uris);
+            collect(cur, ranges, uriSet, pending);
+            if (fl != null) {
+                collect(fl, ranges, uriSet, pending);
+            }
+        }
+        Map<List<String>, HyperLogLog> sketches = repository.sketches(plan, uris);
+        pending.forEach((k, s) -> sketches.computeIfAbsent(k, x -> new HyperLogLog()).merge(s));
+        return IpSketchRepository.estimates(sketches);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.sketches.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            // скетчи возвращены в память, повторим на следующем запуске
+            log.warn("Ip sketches flush failed, {} pending: {}", current.size(), ex.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Ip sketches lost on shutdown: {}", current.size(), ex);
+        }
+    }
+
+    /** Записывает накопленное; при ошибке возвращает скетчи в память и бросает исключение дальше. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<IpSketchRepository.Key, HyperLogLog> batch;
+            swapLock.writeLock().lock();
+            try {
+                batch = current;
+                if (batch.isEmpty()) {
+                    return;
+                }
+                current = new ConcurrentHashMap<>();
+                flushing = batch;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            Timer.Sample sample = Timer.start(registry);
+            String outcome = "error";
+            try {
+                transactionTemplate.executeWithoutResult(status -> repository.add(batch));
+                outcome = "success";
+            } catch (RuntimeException ex) {
+                // до сброса flushing: читатель видит скетчи либо в flushing, либо уже в current
+                requeue(batch);
+                throw ex;
+            } finally {
+                sample.stop(registry.timer("stats.sketches.flush", "outcome", outcome));
+                flushing = null;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void requeue(Map<IpSketchRepository.Key, HyperLogLog> batch) {
+        swapLock.readLock().lock();
+        try {
+            Map<IpSketchRepository.Key, HyperLogLog> p = current;
+            // копия, а не сам скетч пачки: его ещё может читать estimateUnique через flushing
+            batch.forEach((key, s) -> p.compute(key, (k, a) -> {
+                HyperLogLog sketch = a == null ? new HyperLogLog() : a;
+                sketch.merge(s);
+                return sketch;
+            }));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Map<IpSketchRepository.Key, HyperLogLog> p, List<RollupPlan.Range> ranges,
+                                Set<String> uris, Map<List<String>, HyperLogLog> out) {
+        for (IpSketchRepository.Key key : p.keySet()) {
+            if ((uris == null || uris.contains(key.uri())) && covered(key.bucket(), ranges)) {
+                // под блокировкой ключа, пока в скетч могут добавлять ip
+                p.computeIfPresent(key, (k, s) -> {
+                    out.computeIfAbsent(List.of(k.app(), k.uri()), x -> new HyperLogLog()).merge(s);
+                    return s;
+                });
+            }
+        }
+    }
+
+    // минутный бакет целиком внутри минутного, часового или дневного куска плана
+    private static boolean covered(LocalDateTime minute, List<RollupPlan.Range> ranges) {
+        for (RollupPlan.Range r : ranges) {
+            if (!minute.isBefore(r.from()) && minute.isBefore(r.to())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
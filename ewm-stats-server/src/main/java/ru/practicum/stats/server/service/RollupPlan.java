@@ -0,0 +1,68 @@
+package ru.practicum.stats.server.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение полуинтервала [from, to) на куски для чтения /stats:
+ * середина — из самых крупных полностью покрытых бакетов (дни, часы, минуты),
+ * неровные края короче минуты — из сырых хитов.
+ */
+public record RollupPlan(List<Range> raw, List<Range> minutes, List<Range> hours, List<Range> days) {
+
+    /** Полуинтервал [from, to). */
+    public record Range(LocalDateTime from, LocalDateTime to) {
+    }
+
+    public static RollupPlan of(LocalDateTime from, LocalDateTime to) {
+        List<Range> raw = new ArrayList<>();
+        List<Range> minutes = new ArrayList<>();
+        List<Range> hours = new ArrayList<>();
+        List<Range> days = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return new RollupPlan(raw, minutes, hours, days);
+        }
+
+        LocalDateTime m1 = ceil(from, ChronoUnit.MINUTES);
+        LocalDateTime m2 = to.truncatedTo(ChronoUnit.MINUTES);
+        if (!m1.isBefore(m2)) {
+            raw.add(new Range(from, to));
+            return new RollupPlan(raw, minutes, hours, days);
+        }
+        add(raw, from, m1);
+        add(raw, m2, to);
+
+        LocalDateTime h1 = ceil(m1, ChronoUnit.HOURS);
+        LocalDateTime h2 = m2.truncatedTo(ChronoUnit.HOURS);
+        if (!h1.isBefore(h2)) {
+            minutes.add(new Range(m1, m2));
+            return new RollupPlan(raw, minutes, hours, days);
+        }
+        add(minutes, m1, h1);
+        add(minutes, h2, m2);
+
+        LocalDateTime d1 = ceil(h1, ChronoUnit.DAYS);
+        LocalDateTime d2 = h2.truncatedTo(ChronoUnit.DAYS);
+        if (!d1.isBefore(d2)) {
+            hours.add(new Range(h1, h2));
+            return new RollupPlan(raw, minutes, hours, days);
+        }
+        add(hours, h1, d1);
+        add(hours, d2, h2);
+        days.add(new Range(d1, d2));
+        return new RollupPlan(raw, minutes, hours, days);
+    }
+
+    private static LocalDateTime ceil(LocalDateTime t, ChronoUnit unit) {
+        LocalDateTime floor = t.truncatedTo(unit);
+        return floor.equals(t) ? t : floor.plus(1, unit);
+    }
+
+    private static void add(List<Range> ranges, LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(to)) {
+            ranges.add(new Range(from, to));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.stats.server.sketch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * HyperLogLog для оценки числа уникальных ip: 2^14 регистров, стандартная ошибка 1.04/√m ≈ 0.81%.
+ * До ~40 тыс. значений работает линейный подсчёт, он практически точен.
+ * Скетчи объединяются покомпонентным максимумом, поэтому бакеты любого окна складываются без потерь.
+ * Пока заполнено мало регистров, скетч разреженный — и в памяти, и в сериализованном виде.
+ */
+public final class HyperLogLog {
+    public static final int PRECISION = 14;
+    public static final double STANDARD_ERROR = 1.04 / Math.sqrt(1 << PRECISION);
+
+    private static final int M = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+    // разреженная запись (3 байта на регистр) выгоднее плотной, пока регистров меньше M/3
+    private static final int SPARSE_LIMIT = M / 3 - 1;
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    private Map<Integer, Byte> sparse = new HashMap<>();
+    private byte[] dense;
+
+    public void add(String value) {
+        long h = hash(value);
+        int idx = (int) (h >>> (64 - PRECISION));
+        int rho = Math.min(Long.numberOfLeadingZeros(h << PRECISION), 64 - PRECISION) + 1;
+        set(idx, (byte) rho);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.dense != null) {
+            for (int i = 0; i < M; i++) {
+                if (other.dense[i] != 0) {
+                    set(i, other.dense[i]);
+                }
+            }
+        } else {
+            other.sparse.forEach(this::set);
+        }
+    }
+
+    /** Объединение с сериализованным скетчем без промежуточного объекта. */
+    public void merge(byte[] bytes) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        if (buf.get() == DENSE) {
+            for (int i = 0; i < M; i++) {
+                byte r = buf.get();
+                if (r != 0) {
+                    set(i, r);
+                }
+            }
+            return;
+        }
+        int n = Short.toUnsignedInt(buf.getShort());
+        for (int k = 0; k < n; k++) {
+            set(Short.toUnsignedInt(buf.getShort()), buf.get());
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros;
+        if (dense == null) {
+            zeros = M - sparse.size();
+            sum = zeros;
+            for (byte r : sparse.values()) {
+                sum += 1.0 / (1L << r);
+            }
+        } else {
+            zeros = 0;
+            for (byte r : dense) {
+                sum += 1.0 / (1L << r);
+                if (r == 0) {
+                    zeros++;
+                }
+            }
+        }
+        double e = ALPHA * M * M / sum;
+        if (e <= 2.5 * M && zeros > 0) {
+            e = M * Math.log((double) M / zeros);
+        }
+        return Math.round(e);
+    }
+
+    public byte[] toBytes() {
+        if (dense != null) {
+            ByteBuffer buf = ByteBuffer.allocate(1 + M);
+            buf.put(DENSE).put(dense);
+            return buf.array();
+        }
+        ByteBuffer buf = ByteBuffer.allocate(3 + 3 * sparse.size());
+        buf.put(SPARSE).putShort((short) sparse.size());
+        new TreeMap<>(sparse).forEach((idx, r) -> buf.putShort(idx.shortValue()).put(r));
+        return buf.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog hll = new HyperLogLog();
+        hll.merge(bytes);
+        return hll;
+    }
+
+    private void set(int idx, byte rho) {
+        if (dense != null) {
+            if (dense[idx] < rho) {
+                dense[idx] = rho;
+            }
+            return;
+        }
+        sparse.merge(idx, rho, (a, b) -> a < b ? b : a);
+        if (sparse.size() > SPARSE_LIMIT) {
+            dense = new byte[M];
+            sparse.forEach((i, r) -> dense[i] = r);
+            sparse = null;
+        }
+    }
+
+    // FNV-1a 64 с финализатором MurmurHash3: равномерные старшие биты для индекса регистра
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
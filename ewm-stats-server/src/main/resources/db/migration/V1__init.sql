@@ -0,0 +1,9 @@
+-- Исходная схема (раньше создавалась hibernate ddl-auto: update).
+-- На уже существующей БД Flyway ставит baseline = 1 и этот скрипт пропускает.
+CREATE TABLE IF NOT EXISTS endpoint_hits (
+    id  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    app VARCHAR(255) NOT NULL,
+    uri VARCHAR(255) NOT NULL,
+    ip  VARCHAR(255) NOT NULL,
+    ts  TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,40 @@
+-- Предагрегаты неуникальных хитов по минутам, часам и дням.
+-- Пополняются при записи хитов (HitRollupRepository.add); здесь — заполнение по накопленной истории.
+CREATE TABLE IF NOT EXISTS hit_rollup_minute (
+    bucket TIMESTAMP    NOT NULL,
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(255) NOT NULL,
+    hits   BIGINT       NOT NULL,
+    CONSTRAINT pk_hit_rollup_minute PRIMARY KEY (bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_hour (
+    bucket TIMESTAMP    NOT NULL,
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(255) NOT NULL,
+    hits   BIGINT       NOT NULL,
+    CONSTRAINT pk_hit_rollup_hour PRIMARY KEY (bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_day (
+    bucket TIMESTAMP    NOT NULL,
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(255) NOT NULL,
+    hits   BIGINT       NOT NULL,
+    CONSTRAINT pk_hit_rollup_day PRIMARY KEY (bucket, app, uri)
+);
+
+-- края диапазона /stats по-прежнему читаются из сырых хитов
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_ts ON endpoint_hits (ts);
+
+-- новые хиты не должны проскочить между заполнением и стартом сервиса
+LOCK TABLE endpoint_hits IN SHARE MODE;
+
+INSERT INTO hit_rollup_minute (bucket, app, uri, hits)
+SELECT date_trunc('minute', ts), app, uri, COUNT(*) FROM endpoint_hits GROUP BY 1, 2, 3;
+
+INSERT INTO hit_rollup_hour (bucket, app, uri, hits)
+SELECT date_trunc('hour', bucket), app, uri, SUM(hits) FROM hit_rollup_minute GROUP BY 1, 2, 3;
+
+INSERT INTO hit_rollup_day (bucket, app, uri, hits)
+SELECT date_trunc('day', bucket), app, uri, SUM(hits) FROM hit_rollup_hour GROUP BY 1, 2, 3;
@@ -0,0 +1,25 @@
+-- HyperLogLog-скетчи ip по минутам, часам и дням для приближённого unique=true.
+-- Пополняются при записи хитов (IpSketchRepository.add), история заполняется в V4.
+CREATE TABLE IF NOT EXISTS ip_sketch_minute (
+    bucket TIMESTAMP    NOT NULL,
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(255) NOT NULL,
+    sketch BYTEA        NOT NULL,
+    CONSTRAINT pk_ip_sketch_minute PRIMARY KEY (bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS ip_sketch_hour (
+    bucket TIMESTAMP    NOT NULL,
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(255) NOT NULL,
+    sketch BYTEA        NOT NULL,
+    CONSTRAINT pk_ip_sketch_hour PRIMARY KEY (bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS ip_sketch_day (
+    bucket TIMESTAMP    NOT NULL,
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(255) NOT NULL,
+    sketch BYTEA        NOT NULL,
+    CONSTRAINT pk_ip_sketch_day PRIMARY KEY (bucket, app, uri)
+);
@@ -0,0 +1,69 @@
+-- endpoint_hits секционируется по месяцам (RANGE по ts): окно /stats читает только свои секции,
+-- а срок хранения соблюдается удалением целых секций (HitPartitionMaintenance), без DELETE и раздувания.
+-- Хиты вне созданных месяцев (сильно в прошлом/будущем) попадают в endpoint_hits_default.
+
+LOCK TABLE endpoint_hits IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE endpoint_hits RENAME TO endpoint_hits_legacy;
+
+-- у секционированной таблицы PK обязан включать ключ секционирования;
+-- id берём из обычной последовательности, продолжая нумерацию (на неё опирается лента /hits)
+CREATE SEQUENCE endpoint_hits_seq;
+SELECT setval('endpoint_hits_seq', COALESCE((SELECT MAX(id) FROM endpoint_hits_legacy), 0) + 1, false);
+
+CREATE TABLE endpoint_hits (
+    id  BIGINT       NOT NULL DEFAULT nextval('endpoint_hits_seq'),
+    app VARCHAR(255) NOT NULL,
+    uri VARCHAR(255) NOT NULL,
+    ip  VARCHAR(255) NOT NULL,
+    ts  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_endpoint_hits PRIMARY KEY (id, ts)
+) PARTITION BY RANGE (ts);
+
+ALTER SEQUENCE endpoint_hits_seq OWNED BY endpoint_hits.id;
+
+CREATE TABLE endpoint_hits_default PARTITION OF endpoint_hits DEFAULT;
+
+-- точный unique и края окна по конкретным uri
+CREATE INDEX idx_endpoint_hits_uri_ts ON endpoint_hits (uri, ts);
+-- края окна без фильтра по uri; хиты пишутся почти по порядку времени, BRIN тут крошечный
+CREATE INDEX idx_endpoint_hits_ts_brin ON endpoint_hits USING brin (ts);
+
+-- Создаёт секцию месяца, если её нет. Хиты этого месяца из default переносятся в неё,
+-- иначе ATTACH не пройдёт проверку default-секции.
+CREATE OR REPLACE FUNCTION ensure_endpoint_hits_partition(month DATE) RETURNS TEXT
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    lo   TIMESTAMP := date_trunc('month', month);
+    hi   TIMESTAMP := date_trunc('month', month) + INTERVAL '1 month';
+    part TEXT      := 'endpoint_hits_' || to_char(month, 'YYYY_MM');
+BEGIN
+    -- несколько экземпляров сервиса не создают одну секцию одновременно
+    PERFORM pg_advisory_xact_lock(hashtext('endpoint_hits_partitions'));
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN part;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE endpoint_hits INCLUDING DEFAULTS)', part);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (ts >= %L AND ts < %L)', part, part || '_ts', lo, hi);
+    EXECUTE format('INSERT INTO %I SELECT * FROM endpoint_hits_default WHERE ts >= %L AND ts < %L', part, lo, hi);
+    DELETE FROM endpoint_hits_default WHERE ts >= lo AND ts < hi;
+    EXECUTE format('ALTER TABLE endpoint_hits ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', part, lo, hi);
+    -- после ATTACH проверка дублирует границы секции
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', part, part || '_ts');
+    RETURN part;
+END
+$$;
+
+-- секции под накопленную историю и ближайшие месяцы
+SELECT ensure_endpoint_hits_partition(m)
+  FROM (SELECT DISTINCT date_trunc('month', ts)::date AS m FROM endpoint_hits_legacy
+        UNION
+        SELECT (date_trunc('month', now()) + make_interval(months => g))::date
+          FROM generate_series(0, 2) g) months
+ ORDER BY m;
+
+INSERT INTO endpoint_hits (id, app, uri, ip, ts)
+SELECT id, app, uri, ip, ts FROM endpoint_hits_legacy;
+
+DROP TABLE endpoint_hits_legacy;
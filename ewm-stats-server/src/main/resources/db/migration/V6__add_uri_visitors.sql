@@ -0,0 +1,29 @@
+-- Первый хит каждого ip по (app, uri) и число таких ip для точного unique=true за всю историю (POST /hit/count):
+-- просмотр читает одну строку uri_visitor_counts, а не COUNT(DISTINCT ip) по всем секциям endpoint_hits.
+-- Пополняются при записи хитов (UriVisitorRepository.add), история переносится здесь.
+CREATE TABLE IF NOT EXISTS uri_visitors (
+    app        VARCHAR(255) NOT NULL,
+    uri        VARCHAR(255) NOT NULL,
+    ip         VARCHAR(255) NOT NULL,
+    first_seen TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_uri_visitors PRIMARY KEY (app, uri, ip)
+);
+
+CREATE TABLE IF NOT EXISTS uri_visitor_counts (
+    app      VARCHAR(255) NOT NULL,
+    uri      VARCHAR(255) NOT NULL,
+    visitors BIGINT       NOT NULL,
+    CONSTRAINT pk_uri_visitor_counts PRIMARY KEY (app, uri)
+);
+
+INSERT INTO uri_visitors (app, uri, ip, first_seen)
+SELECT app, uri, ip, MIN(ts)
+  FROM endpoint_hits
+ GROUP BY app, uri, ip
+ON CONFLICT DO NOTHING;
+
+INSERT INTO uri_visitor_counts (app, uri, visitors)
+SELECT app, uri, COUNT(*)
+  FROM uri_visitors
+ GROUP BY app, uri
+ON CONFLICT (app, uri) DO UPDATE SET visitors = EXCLUDED.visitors;